@@ -4,6 +4,7 @@ plugins {
 	id("org.springframework.boot") version "3.4.4"
 	id("io.spring.dependency-management") version "1.1.7"
 	id("org.flywaydb.flyway") version "10.20.1"  // Add Flyway plugin
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
@@ -33,6 +34,7 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("io.micrometer:micrometer-registry-prometheus")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	implementation("org.flywaydb:flyway-core")
 	implementation("org.flywaydb:flyway-database-postgresql")
 	implementation("com.zaxxer:HikariCP:5.1.0")
@@ -43,24 +45,99 @@ dependencies {
 	
     compileOnly("org.projectlombok:lombok:1.18.38")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
-	runtimeOnly("org.postgresql:postgresql")
+	implementation("org.postgresql:postgresql")
 	annotationProcessor("org.springframework.boot:spring-boot-configuration-processor")
     annotationProcessor("org.projectlombok:lombok:1.18.38")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.security:spring-security-test")
+	testImplementation("org.testcontainers:junit-jupiter")
+	testImplementation("org.testcontainers:postgresql")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+tasks.withType<Test>() {
+    useJUnitPlatform()
+}
+
 tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
     finalizedBy(tasks.jacocoTestReport)
 }
 
+tasks.register<Test>("benchmarkTest") {
+    group = "verification"
+    description = "Runs the database benchmarks (requires Docker)"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+}
+
 tasks.jacocoTestReport {
     dependsOn(tasks.test)
 }
 
-tasks.withType<Test>() {
-    useJUnitPlatform()
+// JMH benchmarks (src/jmh). All benchmarks report average time, so lower is better.
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaselineFile = layout.projectDirectory.file("src/jmh/baseline/results.json")
+
+jmh {
+    warmupIterations = 3
+    iterations = 5
+    fork = 2
+    resultFormat = "JSON"
+    resultsFile = jmhResults
+}
+
+tasks.register<Copy>("jmhBaseline") {
+    group = "benchmark"
+    description = "Runs the benchmarks and stores the results as the baseline in src/jmh/baseline"
+    dependsOn(tasks.named("jmh"))
+    from(jmhResults)
+    into(jmhBaselineFile.asFile.parentFile)
+}
+
+tasks.register("jmhCheck") {
+    group = "benchmark"
+    description = "Runs the benchmarks and fails if any is slower than the baseline by more than -Pjmh.threshold (default 0.10); -PjmhAllowMissingBaseline skips the comparison when there is no baseline"
+    dependsOn(tasks.named("jmh"))
+    val threshold = (findProperty("jmh.threshold") as String?)?.toDouble() ?: 0.10
+    val allowMissingBaseline = hasProperty("jmhAllowMissingBaseline")
+    doLast {
+        val baselineFile = jmhBaselineFile.asFile
+        if (!baselineFile.exists()) {
+            if (!allowMissingBaseline) {
+                throw GradleException("No JMH baseline at $baselineFile; record one on the reference machine with ./gradlew jmhBaseline, or pass -PjmhAllowMissingBaseline to skip the comparison")
+            }
+            logger.warn("Skipping the comparison: no JMH baseline at $baselineFile")
+            return@doLast
+        }
+        fun scores(file: File): Map<String, Double> =
+            (groovy.json.JsonSlurper().parse(file) as List<*>).associate { entry ->
+                val run = entry as Map<*, *>
+                val params = (run["params"] as Map<*, *>?)?.entries?.joinToString(",", "[", "]") { "${it.key}=${it.value}" } ?: ""
+                "${run["benchmark"]}$params" to ((run["primaryMetric"] as Map<*, *>)["score"] as Number).toDouble()
+            }
+
+        val baseline = scores(baselineFile)
+        val current = scores(jmhResults.get().asFile)
+        val regressions = current.mapNotNull { (name, score) ->
+            val reference = baseline[name] ?: return@mapNotNull null
+            val change = (score - reference) / reference
+            if (change > threshold) "%s: %.1f -> %.1f (+%.1f%%)".format(name, reference, score, change * 100) else null
+        }
+        current.keys.filterNot(baseline::containsKey).forEach { logger.warn("No baseline for $it") }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("Benchmarks regressed by more than ${threshold * 100}%:\n" + regressions.joinToString("\n"))
+        }
+        logger.lifecycle("${current.size} benchmarks within ${threshold * 100}% of the baseline")
+    }
 }
 
 tasks.register("migrate") {
@@ -0,0 +1,57 @@
+package com.example.paymentbe.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "dGVzdFNlY3JldEtleUZvckpXVFRva2VuVGVzdGluZ1B1cnBvc2VzT25seUxvbmdFbm91Z2g=";
+
+    private JwtUtils cachingJwtUtils;
+    private JwtUtils verifyingJwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingJwtUtils = new JwtUtils(SECRET);
+        // A cache size of 0 forces a full signature check on every call
+        verifyingJwtUtils = new JwtUtils(SECRET, 0);
+
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        token = Jwts.builder()
+                .setSubject(UUID.randomUUID().toString())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        cachingJwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims parseClaims_Cached() {
+        return cachingJwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims parseClaims_Verified() {
+        return verifyingJwtUtils.parseClaims(token);
+    }
+}
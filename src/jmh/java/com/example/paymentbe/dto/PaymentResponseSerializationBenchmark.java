@@ -0,0 +1,65 @@
+package com.example.paymentbe.dto;
+
+import com.example.paymentbe.enums.PaymentStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private PaymentResponse response;
+    private PageResponse<PaymentResponse> page;
+
+    @Setup
+    public void setUp() {
+        // Same modules and date format as the mapper Spring Boot configures
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        response = PaymentResponse.builder()
+                .paymentId(UUID.randomUUID().toString())
+                .userId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .amount(150_000)
+                .paymentMethod("CREDIT_CARD")
+                .status(PaymentStatus.PAID)
+                .paymentReference("PAY-1A2B3C4D")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        page = PageResponse.<PaymentResponse>builder()
+                .items(Collections.nCopies(20, response))
+                .nextCursor("MjAyNS0wMS0wMVQwMDowMHwx")
+                .hasMore(true)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
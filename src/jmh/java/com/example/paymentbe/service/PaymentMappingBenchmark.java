@@ -0,0 +1,78 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PaymentRequest;
+import com.example.paymentbe.dto.PaymentResponse;
+import com.example.paymentbe.enums.PaymentMethod;
+import com.example.paymentbe.enums.PaymentStatus;
+import com.example.paymentbe.model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentMappingBenchmark {
+
+    private PaymentServiceImpl paymentService;
+    private PaymentRequest creditCardRequest;
+    private PaymentRequest bankTransferRequest;
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        // The mapping methods never touch the collaborators
+        paymentService = new PaymentServiceImpl(null, null, null, null, null, null, null, null);
+
+        creditCardRequest = new PaymentRequest();
+        creditCardRequest.setUserId(UUID.randomUUID());
+        creditCardRequest.setCourseId(UUID.randomUUID());
+        creditCardRequest.setAmount(150_000);
+        creditCardRequest.setMethod(PaymentMethod.CREDIT_CARD);
+        creditCardRequest.setCardNumber("4111111111111111");
+        creditCardRequest.setCardCvc("123");
+
+        bankTransferRequest = new PaymentRequest();
+        bankTransferRequest.setUserId(UUID.randomUUID());
+        bankTransferRequest.setCourseId(UUID.randomUUID());
+        bankTransferRequest.setAmount(150_000);
+        bankTransferRequest.setMethod(PaymentMethod.BANK_TRANSFER);
+        bankTransferRequest.setBankAccount("1234567890");
+
+        payment = Payment.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .amount(150_000)
+                .method(PaymentMethod.CREDIT_CARD)
+                .status(PaymentStatus.PAID)
+                .cardLastFour("1111")
+                .paymentReference("PAY-1A2B3C4D")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public Payment buildPayment_CreditCard() {
+        return paymentService.buildPayment(creditCardRequest, true, null);
+    }
+
+    @Benchmark
+    public Payment buildPayment_BankTransfer() {
+        return paymentService.buildPayment(bankTransferRequest, true, null);
+    }
+
+    @Benchmark
+    public PaymentResponse buildPaymentResponse() {
+        return paymentService.buildPaymentResponse(payment);
+    }
+}
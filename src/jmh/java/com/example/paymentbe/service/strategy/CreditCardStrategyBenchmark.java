@@ -0,0 +1,60 @@
+package com.example.paymentbe.service.strategy;
+
+import com.example.paymentbe.dto.PaymentRequest;
+import com.example.paymentbe.enums.PaymentMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CreditCardStrategyBenchmark {
+
+    private final CreditCardStrategy creditCardStrategy = new CreditCardStrategy();
+    private final BankTransferStrategy bankTransferStrategy = new BankTransferStrategy();
+    private PaymentRequest validCard;
+    private PaymentRequest invalidCard;
+    private PaymentRequest bankTransfer;
+
+    @Setup
+    public void setUp() {
+        validCard = cardRequest("4111111111111111", "123");
+        invalidCard = cardRequest("4111-1111-1111-1111", "12");
+
+        bankTransfer = new PaymentRequest();
+        bankTransfer.setMethod(PaymentMethod.BANK_TRANSFER);
+        bankTransfer.setAmount(150_000);
+        bankTransfer.setBankAccount("1234567890");
+    }
+
+    @Benchmark
+    public boolean creditCard_Valid() {
+        return creditCardStrategy.process(validCard);
+    }
+
+    @Benchmark
+    public boolean creditCard_Invalid() {
+        return creditCardStrategy.process(invalidCard);
+    }
+
+    @Benchmark
+    public boolean bankTransfer_Valid() {
+        return bankTransferStrategy.process(bankTransfer);
+    }
+
+    private static PaymentRequest cardRequest(String cardNumber, String cvc) {
+        PaymentRequest request = new PaymentRequest();
+        request.setMethod(PaymentMethod.CREDIT_CARD);
+        request.setAmount(150_000);
+        request.setCardNumber(cardNumber);
+        request.setCardCvc(cvc);
+        return request;
+    }
+}
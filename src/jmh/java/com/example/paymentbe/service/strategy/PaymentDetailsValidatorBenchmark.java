@@ -0,0 +1,42 @@
+package com.example.paymentbe.service.strategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Card number validation three ways: String.matches as the strategies used to do it, a
+ * precompiled Pattern, and the hand-rolled PaymentDetailsValidator (which also runs Luhn).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentDetailsValidatorBenchmark {
+
+    private static final Pattern CARD_NUMBER = Pattern.compile("^[0-9]{13,16}$");
+
+    @Param({"4111111111111111", "4111-1111-1111-1111"})
+    public String cardNumber;
+
+    @Benchmark
+    public boolean stringMatches() {
+        return cardNumber.matches("^[0-9]{13,16}$");
+    }
+
+    @Benchmark
+    public boolean precompiledPattern() {
+        return CARD_NUMBER.matcher(cardNumber).matches();
+    }
+
+    @Benchmark
+    public boolean handRolled() {
+        return PaymentDetailsValidator.isValidCardNumber(cardNumber);
+    }
+}
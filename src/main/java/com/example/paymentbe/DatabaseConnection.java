@@ -26,7 +26,9 @@ public class DatabaseConnection {
         config.setUsername(dbUsername);
         config.setPassword(dbPassword);
         config.setDriverClassName("org.postgresql.Driver");
-        config.setMaximumPoolSize(10);
+        // Only used by the standalone migration task, which runs migrations one at a time
+        config.setPoolName("migration");
+        config.setMaximumPoolSize(2);
 
         dataSource = new HikariDataSource(config);
     }
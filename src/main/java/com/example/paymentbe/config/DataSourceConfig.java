@@ -0,0 +1,71 @@
+package com.example.paymentbe.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Replaces Boot's single pool with one Hikari pool per {@link Workload} on the primary, each sized
+ * and timed out separately under payment.datasource.pools.*, and each publishing hikaricp.*
+ * metrics tagged with its pool name. When a replica is configured, read-only transactions are
+ * routed to it first. JPA, Flyway and JdbcTemplate all see the one routing DataSource.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("payment.datasource.pools.oltp")
+    public HikariDataSource oltpDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        return pool(properties, Workload.OLTP, meterRegistry);
+    }
+
+    @Bean
+    @ConfigurationProperties("payment.datasource.pools.admin")
+    public HikariDataSource adminDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        return pool(properties, Workload.ADMIN, meterRegistry);
+    }
+
+    @Bean
+    @ConfigurationProperties("payment.datasource.pools.background")
+    public HikariDataSource backgroundDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        return pool(properties, Workload.BACKGROUND, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("oltpDataSource") DataSource oltp,
+                                 @Qualifier("adminDataSource") DataSource admin,
+                                 @Qualifier("backgroundDataSource") DataSource background,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                                 ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        WorkloadRoutingDataSource primary = new WorkloadRoutingDataSource(
+                Map.of(Workload.OLTP, oltp, Workload.ADMIN, admin, Workload.BACKGROUND, background));
+        primary.afterPropertiesSet();
+
+        ReplicaLagMonitor lagMonitor = replicaLagMonitor.getIfAvailable();
+        if (lagMonitor == null) {
+            return new LazyConnectionDataSourceProxy(primary);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica.getObject(), lagMonitor);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // The metric registry has to be set before the pool starts, i.e. before its first connection
+    private static HikariDataSource pool(DataSourceProperties properties, Workload workload, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(workload.poolName());
+        dataSource.setMetricRegistry(meterRegistry);
+        return dataSource;
+    }
+}
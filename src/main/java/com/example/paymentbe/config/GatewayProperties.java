@@ -0,0 +1,35 @@
+package com.example.paymentbe.config;
+
+import com.example.paymentbe.enums.PaymentMethod;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resilience settings for the asynchronous gateway path, e.g.
+ * {@code payment.gateway.methods.credit-card.timeout=3s}. Methods without their own entry use
+ * {@code payment.gateway.defaults.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.gateway")
+public class GatewayProperties {
+    private Resilience defaults = new Resilience();
+    private Map<PaymentMethod, Resilience> methods = new EnumMap<>(PaymentMethod.class);
+
+    public Resilience forMethod(PaymentMethod method) {
+        return methods.getOrDefault(method, defaults);
+    }
+
+    @Data
+    public static class Resilience {
+        private Duration timeout = Duration.ofSeconds(5);
+        private int maxConcurrentCalls = 100; // Bulkhead size
+        private int failureThreshold = 5; // Consecutive failures that open the circuit
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+}
@@ -3,6 +3,8 @@ package com.example.paymentbe.config;
 import java.io.IOException;
 import java.util.Collections;
 
+import io.jsonwebtoken.Claims;
+
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -28,8 +30,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String userId = jwtUtils.getUserIdFromJwtToken(jwt);
+            Claims claims = jwt != null ? jwtUtils.getValidatedClaims(jwt) : null;
+            if (claims != null) {
+                String userId = claims.getSubject();
 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     userId, null, Collections.emptyList());
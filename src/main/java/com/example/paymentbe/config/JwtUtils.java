@@ -1,49 +1,141 @@
 package com.example.paymentbe.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.SignatureException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
 
-    private final String jwtSecret;
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private final JwtParser jwtParser;
+    private final Cache<String, VerifiedToken> verifiedTokens; // null when caching is off
+
+    public JwtUtils(String jwtSecret) {
+        this(jwtSecret, DEFAULT_CACHE_SIZE);
+    }
 
-    public JwtUtils(@Value("${jwt.secret}") String jwtSecret) {
-        this.jwtSecret = jwtSecret;
+    @Autowired
+    public JwtUtils(@Value("${jwt.secret}") String jwtSecret,
+                    @Value("${jwt.cache.max-entries:10000}") int cacheSize) {
+        // Key and parser are immutable and thread-safe, so build them once instead of per token
+        Key signingKey = jwtSecret != null ? Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)) : null;
+        this.jwtParser = signingKey != null ? Jwts.parserBuilder().setSigningKey(signingKey).build() : null;
+        this.verifiedTokens = cacheSize > 0
+                ? Caffeine.newBuilder().maximumSize(cacheSize).expireAfter(new UntilTokenExpiry()).build()
+                : null;
     }
 
-    private Key getSigningKey() {
-        if (jwtSecret == null) {
+    private JwtParser getParser() {
+        if (jwtParser == null) {
             throw new IllegalStateException("JWT secret key is not initialized");
         }
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return jwtParser;
     }
 
-    public String getUserIdFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the token once and returns its claims. Tokens that were already verified
+     * are served from a bounded cache until they expire; every caller gets its own copy.
+     */
+    public Claims parseClaims(String token) {
+        if (verifiedTokens == null) {
+            return getParser().parseClaimsJws(token).getBody();
+        }
+        String cacheKey = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return Jwts.claims(cached.claims());
+        }
 
-        return claims.getSubject();
+        Claims claims = getParser().parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(cacheKey, new VerifiedToken(
+                    Collections.unmodifiableMap(new LinkedHashMap<>(claims)), expiration.getTime()));
+        }
+        return claims;
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Returns the verified claims, or null if the token is missing or invalid.
+     */
+    public Claims getValidatedClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            return parseClaims(authToken);
         } catch (SignatureException e) {
             System.out.println("Invalid JWT signature: " + e.getMessage());
         } catch (Exception e) {
             System.out.println("Invalid JWT token: " + e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getUserIdFromJwtToken(String token) {
+        return parseClaims(token).getSubject();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return getValidatedClaims(authToken) != null;
+    }
+
+    long cachedTokenCount() {
+        if (verifiedTokens == null) {
+            return 0;
+        }
+        verifiedTokens.cleanUp();
+        return verifiedTokens.estimatedSize();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashed = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hashed);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // A read-only snapshot, so one caller changing its claims cannot affect the next one
+    private record VerifiedToken(Map<String, Object> claims, long expiresAt) {
+    }
+
+    // Each entry lives exactly as long as its token is valid
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(token.expiresAt() - System.currentTimeMillis(), 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-} 
\ No newline at end of file
+}
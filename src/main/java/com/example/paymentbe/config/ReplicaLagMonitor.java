@@ -0,0 +1,97 @@
+package com.example.paymentbe.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far the replica trails the primary. A replica that has replayed everything it
+ * received counts as caught up even when the primary has been idle for a while. Until the first
+ * successful check, and whenever a check fails, the lag is unknown and the replica is not used.
+ * A reading older than two check intervals counts as unknown too, so a stalled scheduler cannot
+ * keep an old "caught up" verdict alive.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    static final long UNKNOWN = Long.MAX_VALUE;
+
+    private static final String LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint END
+            """;
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final long maxReadingAgeMillis;
+    private final Ticker ticker;
+    private volatile Reading reading;
+
+    // One measurement and the ticker time it was taken at, published together
+    private record Reading(long lagMillis, long measuredAt) {
+    }
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this(new JdbcTemplate(replica), properties, meterRegistry);
+    }
+
+    ReplicaLagMonitor(JdbcTemplate replica, ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this(replica, properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    ReplicaLagMonitor(JdbcTemplate replica, ReplicaProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.replica = replica;
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        this.maxReadingAgeMillis = 2 * properties.getLagCheckInterval().toMillis();
+        this.ticker = ticker;
+        Gauge.builder("replica.lag", this, monitor -> monitor.getLagMillis() == UNKNOWN ? Double.NaN : monitor.getLagMillis())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("replica.usable", this, monitor -> monitor.isReplicaUsable() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.datasource.replica.lag-check-interval:1s}")
+    public void check() {
+        boolean wasUsable = isReplicaUsable();
+        try {
+            Long lag = replica.queryForObject(LAG_QUERY, Long.class);
+            reading = lag != null ? new Reading(Math.max(lag, 0), ticker.read()) : null;
+        } catch (DataAccessException e) {
+            reading = null;
+            if (wasUsable) {
+                log.warn("Replica lag check failed, reading from the primary", e);
+            }
+        }
+        if (wasUsable != isReplicaUsable()) {
+            long lag = getLagMillis();
+            log.info("Replica {} (lag {} ms, max {} ms)", isReplicaUsable() ? "in use" : "bypassed",
+                    lag == UNKNOWN ? "unknown" : lag, maxLagMillis);
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return getLagMillis() <= maxLagMillis;
+    }
+
+    // UNKNOWN when there is no successful reading or the last one is too old to trust
+    public long getLagMillis() {
+        Reading current = reading;
+        if (current == null
+                || TimeUnit.NANOSECONDS.toMillis(ticker.read() - current.measuredAt()) > maxReadingAgeMillis) {
+            return UNKNOWN;
+        }
+        return current.lagMillis();
+    }
+
+    // How old a reading may get before it stops counting
+    public long getMaxReadingAgeMillis() {
+        return maxReadingAgeMillis;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.paymentbe.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Read replica for read-only transactions, e.g. {@code payment.datasource.replica.url=jdbc:postgresql://replica/db}.
+ * Without a url every query goes to the primary. Pool settings live under
+ * {@code payment.datasource.replica.hikari.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.datasource.replica")
+public class ReplicaProperties {
+    private String url;
+    private String username;
+    private String password;
+    private Duration maxLag = Duration.ofSeconds(2); // Beyond this, read-only transactions fall back to the primary
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+}
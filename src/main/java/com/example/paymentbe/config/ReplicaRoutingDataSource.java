@@ -0,0 +1,58 @@
+package com.example.paymentbe.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replica while it keeps up, and everything else to the
+ * primary. Must sit behind a LazyConnectionDataSourceProxy: the target is then picked when the
+ * first statement needs a connection, after the transaction's read-only flag has been set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Runs the action with every connection it opens taken from the primary, including those of
+     * read-only transactions. Only affects transactions that have not issued a statement yet.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (FORCE_PRIMARY.get() != null) {
+            return action.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    /**
+     * Whether the current thread is inside {@link #onPrimary}.
+     */
+    public static boolean isPrimaryForced() {
+        return FORCE_PRIMARY.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !isPrimaryForced()
+                && lagMonitor.isReplicaUsable();
+        return replica ? Target.REPLICA : Target.PRIMARY;
+    }
+}
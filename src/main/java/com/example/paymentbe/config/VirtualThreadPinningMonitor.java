@@ -0,0 +1,90 @@
+package com.example.paymentbe.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streams jdk.VirtualThreadPinned JFR events into Micrometer so carrier threads blocked by a
+ * virtual thread inside a synchronized block (JDBC driver, pool, gateway client) show up as
+ * jvm.threads.virtual.pinned, tagged with the first non-JDK frame that held the monitor.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String METRIC_NAME = "jvm.threads.virtual.pinned";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${payment.virtual-threads.pinning-threshold:20ms}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (recording != null) {
+            return;
+        }
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return recording != null;
+    }
+
+    private void record(RecordedEvent event) {
+        String site = siteOf(event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of());
+        Timer.builder(METRIC_NAME)
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+        Counter.builder(METRIC_NAME + ".events")
+                .tag("site", site)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+    }
+
+    static String siteOf(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod() == null || frame.getMethod().getType() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type;
+            }
+        }
+        return "unknown";
+    }
+}
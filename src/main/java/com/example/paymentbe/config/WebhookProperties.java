@@ -0,0 +1,41 @@
+package com.example.paymentbe.config;
+
+import com.example.paymentbe.enums.OutboxEventType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Webhook endpoints fed by the outbox relay, e.g.
+ * {@code payment.webhooks.endpoints[0].url=https://enrollment.internal/webhooks/payments}.
+ * Retry settings are shared; batching and concurrency are per endpoint.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "payment.webhooks")
+public class WebhookProperties {
+    private boolean enabled;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration requestTimeout = Duration.ofSeconds(5);
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(10);
+    private Duration deliveryLease = Duration.ofMinutes(5); // Must outlast every attempt of a batch and its backoff
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    @Data
+    public static class Endpoint {
+        private String name;
+        private URI url;
+        private Set<OutboxEventType> events = EnumSet.noneOf(OutboxEventType.class); // Empty means all
+        private int maxConcurrency = 8; // Requests in flight at once
+        private int batchSize = 50; // Events per request
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.paymentbe.config;
+
+import java.util.function.Supplier;
+
+/**
+ * The kind of work the current thread is doing, which decides the connection pool it draws from.
+ * Request threads default to OLTP; admin requests and background jobs mark themselves.
+ */
+public enum Workload {
+    OLTP,
+    ADMIN,
+    BACKGROUND;
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : OLTP;
+    }
+
+    public String poolName() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Runs the action as this workload. Connections already held by the current transaction are
+     * kept; only connections opened inside the action come from this workload's pool.
+     */
+    public <T> T call(Supplier<T> action) {
+        Workload previous = enter();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // For callers that cannot wrap their work in a Supplier, such as servlet filters
+    Workload enter() {
+        Workload previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    static void restore(Workload previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
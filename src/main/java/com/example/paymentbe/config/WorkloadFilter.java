@@ -0,0 +1,35 @@
+package com.example.paymentbe.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Admin endpoints scan whole queues; they run on the admin pool
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadFilter extends OncePerRequestFilter {
+    static final String ADMIN_PATH = "/api/v1/payment/admin/";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!request.getRequestURI().startsWith(request.getContextPath() + ADMIN_PATH)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Workload previous = Workload.ADMIN.enter();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Workload.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.paymentbe.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Picks the primary's connection pool by the current {@link Workload}, so long admin scans and
+ * background jobs queue on their own pools instead of taking checkout's connections.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public WorkloadRoutingDataSource(Map<Workload, DataSource> pools) {
+        setTargetDataSources(Map.copyOf(pools));
+        setDefaultTargetDataSource(pools.get(Workload.OLTP));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Workload.current();
+    }
+}
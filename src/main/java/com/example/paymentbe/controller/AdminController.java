@@ -3,6 +3,7 @@ package com.example.paymentbe.controller;
 import com.example.paymentbe.dto.*;
 import com.example.paymentbe.service.PaymentService;
 import com.example.paymentbe.service.RefundService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,16 +32,60 @@ public class AdminController {
         }
     }
 
+    @PutMapping("/status/bulk")
+    public ResponseEntity<?> updatePaymentStatuses(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(paymentService.updatePaymentStatuses(request.getPaymentIds(), request.getStatus()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage(), "STATUS_UPDATE_ERROR"));
+        }
+    }
+
     @GetMapping("/pending")
     public ResponseEntity<List<PaymentResponse>> getPendingPayments() {
         return ResponseEntity.ok(paymentService.getPendingPayments());
     }
 
+    @GetMapping("/pending/page")
+    public ResponseEntity<?> getPendingPaymentsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(paymentService.getPendingPaymentsPage(cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage(), "PAGINATION_ERROR"));
+        }
+    }
+
+    @GetMapping("/pending/count")
+    public ResponseEntity<CountResponse> countPendingPayments() {
+        return ResponseEntity.ok(new CountResponse(paymentService.countPendingPayments()));
+    }
+
     @GetMapping("/refunds/pending")
     public ResponseEntity<List<RefundResponse>> getPendingRefunds() {
         return ResponseEntity.ok(refundService.getPendingRefunds());
     }
 
+    @GetMapping("/refunds/pending/page")
+    public ResponseEntity<?> getPendingRefundsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(refundService.getPendingRefundsPage(cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage(), "PAGINATION_ERROR"));
+        }
+    }
+
+    @GetMapping("/refunds/pending/count")
+    public ResponseEntity<CountResponse> countPendingRefunds() {
+        return ResponseEntity.ok(new CountResponse(refundService.countPendingRefunds()));
+    }
+
     @PutMapping("/refunds/{refundId}/process")
     public ResponseEntity<?> processRefund(
             @PathVariable String refundId,
@@ -54,6 +99,17 @@ public class AdminController {
         }
     }
 
+    @PutMapping("/refunds/process/bulk")
+    public ResponseEntity<?> processRefunds(@Valid @RequestBody BulkRefundProcessRequest request) {
+        try {
+            return ResponseEntity.ok(refundService.processRefunds(
+                    request.getRefundIds(), request.getStatus(), request.getProcessedBy()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage(), "REFUND_PROCESS_ERROR"));
+        }
+    }
+
     @GetMapping("/refunds/{refundId}")
     public ResponseEntity<?> getRefund(@PathVariable String refundId) {
         try {
@@ -1,28 +1,52 @@
 package com.example.paymentbe.controller;
 
 import com.example.paymentbe.dto.*;
+import com.example.paymentbe.service.IdempotencyService;
+import com.example.paymentbe.service.PaymentEventHub;
 import com.example.paymentbe.service.PaymentService;
 import com.example.paymentbe.service.RefundService;
+import com.example.paymentbe.service.strategy.GatewayUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/v1/payment")
 @RequiredArgsConstructor
+@Validated
 public class PaymentController {
     private final PaymentService paymentService;
     private final RefundService refundService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final PaymentEventHub paymentEventHub;
 
     @PostMapping
     // @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<?> createPayment(@Valid @RequestBody PaymentRequest request) {
+    public ResponseEntity<?> createPayment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody PaymentRequest request) {
         try {
+            if (idempotencyKey != null) {
+                return ResponseEntity.ok(idempotencyService.processPayment(idempotencyKey, request));
+            }
             return ResponseEntity.ok(paymentService.processPayment(request));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -30,6 +54,42 @@ public class PaymentController {
         }
     }
 
+    @PostMapping("/async")
+    // @PreAuthorize("hasRole('STUDENT')")
+    public CompletableFuture<ResponseEntity<?>> createPaymentAsync(@Valid @RequestBody PaymentRequest request) {
+        CompletableFuture<PaymentResponse> payment;
+        try {
+            payment = paymentService.processPaymentAsync(request);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage(), "PAYMENT_ERROR")));
+        }
+        return payment.<ResponseEntity<?>>handle((response, error) -> {
+            if (error == null) {
+                return ResponseEntity.ok(response);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof GatewayUnavailableException || cause instanceof TimeoutException) {
+                String message = cause instanceof TimeoutException ? "Payment gateway timed out" : cause.getMessage();
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(new ErrorResponse(message, "GATEWAY_UNAVAILABLE"));
+            }
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(cause.getMessage(), "PAYMENT_ERROR"));
+        });
+    }
+
+    @PostMapping("/batch")
+    // @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createPayments(@RequestBody List<@Valid PaymentRequest> requests) {
+        try {
+            return ResponseEntity.ok(paymentService.processPayments(requests));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage(), "BATCH_PAYMENT_ERROR"));
+        }
+    }
+
     @GetMapping("/{paymentId}")
     public ResponseEntity<?> getPayment(@PathVariable String paymentId) {
         try {
@@ -40,11 +100,66 @@ public class PaymentController {
         }
     }
 
+    // Pushes the payment's status whenever it changes, so clients no longer need to poll it
+    @GetMapping("/{paymentId}/events")
+    public ResponseEntity<SseEmitter> streamPaymentEvents(@PathVariable String paymentId) {
+        try {
+            return ResponseEntity.ok(paymentEventHub.subscribe(paymentService.getPayment(paymentId)));
+        } catch (Exception e) {
+            SseEmitter error = new SseEmitter();
+            try {
+                error.send(SseEmitter.event().name("error")
+                        .data(new ErrorResponse(e.getMessage(), "NOT_FOUND"), MediaType.APPLICATION_JSON));
+                error.complete();
+            } catch (IOException sendFailure) {
+                error.completeWithError(sendFailure);
+            }
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<PaymentResponse>> getUserPayments(@PathVariable String userId) {
         return ResponseEntity.ok(paymentService.getUserPayments(userId));
     }
 
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<?> getUserPaymentsPage(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(paymentService.getUserPaymentsPage(userId, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(e.getMessage(), "PAGINATION_ERROR"));
+        }
+    }
+
+    @GetMapping("/user/{userId}/stream")
+    public ResponseEntity<StreamingResponseBody> streamUserPayments(@PathVariable String userId) {
+        try {
+            UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            ErrorResponse error = new ErrorResponse("Invalid user ID: " + userId, "STREAM_ERROR");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+
+        StreamingResponseBody body = out -> paymentService.streamUserPayments(userId, payment -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(payment));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @PostMapping("/{paymentId}/refund")
     // @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<?> requestRefund(
@@ -57,4 +172,11 @@ public class PaymentController {
                     .body(new ErrorResponse(e.getMessage(), "REFUND_ERROR"));
         }
     }
-}
\ No newline at end of file
+
+    // Raised by the @Validated proxy before the handler runs, e.g. for an invalid item in a batch
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolation(ConstraintViolationException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage(), "VALIDATION_ERROR"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.paymentbe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentResponse {
+    private int total;
+    private int accepted;
+    private int rejected;
+    private List<BatchPaymentResult> results;
+}
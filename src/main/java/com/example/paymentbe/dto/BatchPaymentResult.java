@@ -0,0 +1,17 @@
+package com.example.paymentbe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPaymentResult {
+    private int index; // Position of the item in the submitted batch
+    private boolean accepted; // Persisted; the payment status still reflects the gateway outcome
+    private PaymentResponse payment;
+    private String error; // Why the item was rejected, or why its gateway call failed
+}
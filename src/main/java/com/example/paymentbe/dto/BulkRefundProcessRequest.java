@@ -0,0 +1,19 @@
+package com.example.paymentbe.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkRefundProcessRequest {
+    @NotEmpty(message = "Refund IDs are required")
+    private List<String> refundIds;
+
+    @NotBlank(message = "Status is required")
+    private String status;
+
+    @NotBlank(message = "Processed by is required")
+    private String processedBy;
+}
@@ -0,0 +1,16 @@
+package com.example.paymentbe.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatusUpdateRequest {
+    @NotEmpty(message = "Payment IDs are required")
+    private List<String> paymentIds;
+
+    @NotBlank(message = "Status is required")
+    private String status;
+}
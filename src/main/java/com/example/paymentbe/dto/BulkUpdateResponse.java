@@ -0,0 +1,19 @@
+package com.example.paymentbe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateResponse {
+    private int total;
+    private int updated;
+    private int failed;
+    private List<BulkUpdateResult> results;
+}
@@ -0,0 +1,17 @@
+package com.example.paymentbe.dto;
+
+import com.example.paymentbe.enums.BulkUpdateOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateResult {
+    private String id;
+    private BulkUpdateOutcome outcome;
+    private String status; // New status when updated, current status when the transition was refused
+}
@@ -0,0 +1,12 @@
+package com.example.paymentbe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CountResponse {
+    private long count;
+}
@@ -0,0 +1,14 @@
+package com.example.paymentbe.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PageResponse<T> {
+    private List<T> items;
+    private String nextCursor; // Null when there are no more rows
+    private boolean hasMore;
+}
@@ -8,10 +8,10 @@ import lombok.Data;
 
 @Data
 public class PaymentRequest {
-    @NotBlank(message = "User ID is required")
+    @NotNull(message = "User ID is required")
     private UUID userId;
 
-    @NotBlank(message = "Course ID is required")
+    @NotNull(message = "Course ID is required")
     private UUID courseId;
 
     @Positive(message = "Amount must be positive")
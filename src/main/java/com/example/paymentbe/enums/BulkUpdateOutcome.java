@@ -0,0 +1,10 @@
+package com.example.paymentbe.enums;
+
+public enum BulkUpdateOutcome {
+    UPDATED,
+    UNCHANGED,
+    NOT_FOUND,
+    INVALID_TRANSITION,
+    INVALID_ID,
+    DUPLICATE_ID
+}
@@ -0,0 +1,17 @@
+package com.example.paymentbe.enums;
+
+public enum OutboxEventType {
+    PAYMENT_CREATED("payment"),
+    PAYMENT_STATUS_CHANGED("payment"),
+    REFUND_PROCESSED("refund");
+
+    private final String aggregateType;
+
+    OutboxEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
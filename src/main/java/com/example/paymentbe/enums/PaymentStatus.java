@@ -1,9 +1,50 @@
 package com.example.paymentbe.enums;
 
+import java.util.List;
+import java.util.Set;
+
 public enum PaymentStatus {
     PENDING,
     PAID,
     FAILED,
     REFUND_REQUESTED,
-    REFUNDED
-}
\ No newline at end of file
+    REFUNDED;
+
+    // Admins only settle payments still waiting on the gateway. Every later status belongs to the
+    // refund workflow, so an admin cannot open, close or skip a refund from here.
+    private static final StatusTransitions<PaymentStatus> ADMIN_TRANSITIONS = new StatusTransitions<>(PaymentStatus.class)
+            .allow(PAID, PENDING)
+            .allow(FAILED, PENDING);
+
+    // Moves made alongside a refund row: requesting one opens it exactly once, and the decision
+    // either completes it or returns the payment to PAID
+    private static final StatusTransitions<PaymentStatus> REFUND_TRANSITIONS = new StatusTransitions<>(PaymentStatus.class)
+            .allow(REFUND_REQUESTED, PAID)
+            .allow(REFUNDED, REFUND_REQUESTED)
+            .allow(PAID, REFUND_REQUESTED);
+
+    public Set<PaymentStatus> adminPredecessors() {
+        return ADMIN_TRANSITIONS.predecessors(this);
+    }
+
+    // Precomputed for the status IN (...) predicate of guarded UPDATEs
+    public List<String> adminPredecessorNames() {
+        return ADMIN_TRANSITIONS.predecessorNames(this);
+    }
+
+    public boolean canAdminTransitionTo(PaymentStatus target) {
+        return ADMIN_TRANSITIONS.allows(this, target);
+    }
+
+    public Set<PaymentStatus> refundPredecessors() {
+        return REFUND_TRANSITIONS.predecessors(this);
+    }
+
+    public List<String> refundPredecessorNames() {
+        return REFUND_TRANSITIONS.predecessorNames(this);
+    }
+
+    public boolean canRefundTransitionTo(PaymentStatus target) {
+        return REFUND_TRANSITIONS.allows(this, target);
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.paymentbe.enums;
 
+import java.util.List;
+import java.util.Set;
+
 public enum RefundStatus {
     PENDING("PENDING"),
     ACCEPTED("ACCEPTED"),
     REJECTED("REJECTED");
 
+    // Refunds are created PENDING and decided exactly once
+    private static final StatusTransitions<RefundStatus> TRANSITIONS = new StatusTransitions<>(RefundStatus.class)
+            .allow(ACCEPTED, PENDING)
+            .allow(REJECTED, PENDING);
+
     private final String status;
 
     RefundStatus(String status) {
@@ -14,4 +22,30 @@ public enum RefundStatus {
     public String getStatus() {
         return status;
     }
-} 
\ No newline at end of file
+
+    public Set<RefundStatus> allowedPredecessors() {
+        return TRANSITIONS.predecessors(this);
+    }
+
+    public List<String> allowedPredecessorNames() {
+        return TRANSITIONS.predecessorNames(this);
+    }
+
+    public boolean canTransitionTo(RefundStatus target) {
+        return TRANSITIONS.allows(this, target);
+    }
+
+    // A decision can only be reached from another status, never be the starting one
+    public boolean isDecision() {
+        return !allowedPredecessors().isEmpty();
+    }
+
+    // The status the refunded payment moves to alongside this refund status
+    public PaymentStatus paymentStatus() {
+        return switch (this) {
+            case PENDING -> PaymentStatus.REFUND_REQUESTED;
+            case ACCEPTED -> PaymentStatus.REFUNDED;
+            case REJECTED -> PaymentStatus.PAID;
+        };
+    }
+}
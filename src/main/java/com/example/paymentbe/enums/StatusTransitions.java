@@ -0,0 +1,60 @@
+package com.example.paymentbe.enums;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputed transition table of a status enum. For every target status it keeps the statuses
+ * it may be entered from, both as a bitmask over ordinals (a check is one AND, no allocation) and
+ * as the names bound to the {@code status IN (...)} guard of conditional UPDATEs.
+ * Only filled in while the owning enum initializes.
+ */
+final class StatusTransitions<E extends Enum<E>> {
+    private final int[] predecessorMasks;
+    private final Map<E, Set<E>> predecessors;
+    private final Map<E, List<String>> predecessorNames;
+
+    StatusTransitions(Class<E> type) {
+        E[] statuses = type.getEnumConstants();
+        if (statuses.length > Integer.SIZE) {
+            throw new IllegalArgumentException(type.getSimpleName() + " has too many constants for a bitmask");
+        }
+        this.predecessorMasks = new int[statuses.length];
+        this.predecessors = new EnumMap<>(type);
+        this.predecessorNames = new EnumMap<>(type);
+        for (E status : statuses) {
+            predecessors.put(status, Collections.unmodifiableSet(EnumSet.noneOf(type)));
+            predecessorNames.put(status, List.of());
+        }
+    }
+
+    @SafeVarargs
+    final StatusTransitions<E> allow(E target, E... from) {
+        Set<E> allowed = EnumSet.copyOf(Arrays.asList(from));
+        int mask = 0;
+        for (E status : allowed) {
+            mask |= 1 << status.ordinal();
+        }
+        predecessorMasks[target.ordinal()] = mask;
+        predecessors.put(target, Collections.unmodifiableSet(allowed));
+        predecessorNames.put(target, allowed.stream().map(Enum::name).toList());
+        return this;
+    }
+
+    boolean allows(E from, E target) {
+        return (predecessorMasks[target.ordinal()] & (1 << from.ordinal())) != 0;
+    }
+
+    Set<E> predecessors(E target) {
+        return predecessors.get(target);
+    }
+
+    List<String> predecessorNames(E target) {
+        return predecessorNames.get(target);
+    }
+}
@@ -18,7 +18,7 @@ import java.util.UUID;
 @AllArgsConstructor
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
@@ -47,6 +47,9 @@ public class Payment {
     @Column(name = "payment_reference", nullable = false)
     private String paymentReference;
 
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -55,6 +58,10 @@ public class Payment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version; // null until persisted, which is how Spring Data tells new payments apart
+
+    // Loaded eagerly whatever the fetch type, being the inverse side; see the entity graphs in PaymentRepository
     @OneToOne(mappedBy = "payment", cascade = CascadeType.ALL, orphanRemoval = true)
     private Refund refund;
 
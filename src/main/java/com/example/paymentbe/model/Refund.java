@@ -16,8 +16,7 @@ import java.util.UUID;
 @AllArgsConstructor
 public class Refund {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private UUID id;
+    private UUID id; // Shared with the payment through @MapsId, so it is time-ordered too
 
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_id")
@@ -43,4 +42,7 @@ public class Refund {
 
     @Column(name = "processed_at")
     private LocalDateTime processedAt;
+
+    @Version
+    private Long version;
 }
\ No newline at end of file
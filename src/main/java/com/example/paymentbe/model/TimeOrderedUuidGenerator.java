@@ -0,0 +1,49 @@
+package com.example.paymentbe.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RFC 9562 version 7 UUIDs: 48 bits of Unix epoch milliseconds, a 12 bit counter in rand_a
+ * that keeps ids strictly increasing within a millisecond, and 62 random bits.
+ */
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_BITS = 12;
+
+    // (millis << 12) | counter of the last id handed out
+    private final AtomicLong lastStamp = new AtomicLong();
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner,
+                           Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    public UUID next() {
+        return next(System.currentTimeMillis());
+    }
+
+    UUID next(long nowMillis) {
+        // A clock step backwards or a counter overflow borrows from the next millisecond
+        long stamp = lastStamp.updateAndGet(last -> Math.max(last + 1, nowMillis << COUNTER_BITS));
+        long millis = stamp >>> COUNTER_BITS;
+        long counter = stamp & ((1L << COUNTER_BITS) - 1);
+
+        long mostSigBits = (millis << 16) | 0x7000L | counter;
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
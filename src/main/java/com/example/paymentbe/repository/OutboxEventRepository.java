@@ -0,0 +1,29 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // Leases the next unclaimed chunk and commits; rows another relay is claiming right now are
+    // skipped rather than waited for. RETURNING gives no order guarantee.
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET claimed_until = now() + make_interval(secs => :leaseSeconds) " +
+                   "WHERE id IN (SELECT id FROM outbox_events " +
+                   "WHERE claimed_until IS NULL OR claimed_until < now() " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<OutboxEvent> claimNextChunk(@Param("limit") int limit, @Param("leaseSeconds") long leaseSeconds);
+
+    // Hands a chunk back after a failed publish instead of waiting for its lease to run out
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET claimed_until = NULL WHERE id IN (:ids) RETURNING id",
+           nativeQuery = true)
+    List<Long> releaseClaims(@Param("ids") Collection<Long> ids);
+}
@@ -2,14 +2,96 @@ package com.example.paymentbe.repository;
 
 import com.example.paymentbe.model.Payment;
 import com.example.paymentbe.enums.PaymentStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+    // List endpoints select response columns only; the refund reason comes from the same row
+    String SELECT_VIEW = "SELECT new com.example.paymentbe.repository.PaymentView(p.id, p.userId, p.courseId, " +
+                         "p.amount, p.method, p.status, p.paymentReference, p.createdAt, p.updatedAt, r.reason) " +
+                         "FROM Payment p LEFT JOIN p.refund r ";
+
+    // Payment.refund is the inverse side of a one-to-one, which Hibernate always loads eagerly with
+    // a SELECT per payment. Entity finders join it into the same query instead.
+    @Override
+    @EntityGraph(attributePaths = "refund")
+    Optional<Payment> findById(UUID id);
+
+    @EntityGraph(attributePaths = "refund")
     List<Payment> findByUserId(UUID userId);
+
+    @EntityGraph(attributePaths = "refund")
     List<Payment> findByStatus(PaymentStatus status);
-}
\ No newline at end of file
+
+    long countByStatus(PaymentStatus status);
+
+    @EntityGraph(attributePaths = "refund")
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+
+    @Query(SELECT_VIEW + "WHERE p.userId = :userId")
+    List<PaymentView> findViewsByUserId(@Param("userId") UUID userId);
+
+    @Query(SELECT_VIEW + "WHERE p.status = :status")
+    List<PaymentView> findViewsByStatus(@Param("status") PaymentStatus status);
+
+    @Query("SELECT p.status FROM Payment p WHERE p.id = :id")
+    Optional<PaymentStatus> findStatusById(@Param("id") UUID id);
+
+    // Check and write in one statement; empty when the payment is missing or not in an allowed status
+    @Transactional
+    @Query(value = "UPDATE payments SET status = :status, updated_at = :updatedAt, version = version + 1 " +
+                   "WHERE id = :id AND status IN (:allowed) RETURNING *", nativeQuery = true)
+    Optional<Payment> updateStatusIfAllowed(@Param("id") UUID id,
+                                            @Param("status") String status,
+                                            @Param("allowed") Collection<String> allowed,
+                                            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Set-based form of updateStatusIfAllowed; returns the ids that were updated
+    @Transactional
+    @Query(value = "UPDATE payments SET status = :status, updated_at = :updatedAt, version = version + 1 " +
+                   "WHERE id IN (:ids) AND status IN (:allowed) RETURNING id", nativeQuery = true)
+    List<UUID> updateStatusesIfAllowed(@Param("ids") Collection<UUID> ids,
+                                       @Param("status") String status,
+                                       @Param("allowed") Collection<String> allowed,
+                                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT p.id AS id, p.status AS status FROM Payment p WHERE p.id IN :ids")
+    List<PaymentStatusView> findStatusesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.refund WHERE p.id IN :ids")
+    List<Payment> findAllWithRefundByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query(SELECT_VIEW + "WHERE p.userId = :userId ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentView> findUserPage(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(SELECT_VIEW + "WHERE p.userId = :userId " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentView> findUserPageAfter(@Param("userId") UUID userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") UUID id,
+                                        Pageable pageable);
+
+    @Query(SELECT_VIEW + "WHERE p.status = :status ORDER BY p.createdAt ASC, p.id ASC")
+    List<PaymentView> findStatusPage(@Param("status") PaymentStatus status, Pageable pageable);
+
+    @Query(SELECT_VIEW + "WHERE p.status = :status " +
+           "AND (p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id)) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<PaymentView> findStatusPageAfter(@Param("status") PaymentStatus status,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") UUID id,
+                                          Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.enums.PaymentStatus;
+
+import java.util.UUID;
+
+public interface PaymentStatusView {
+    UUID getId();
+    PaymentStatus getStatus();
+}
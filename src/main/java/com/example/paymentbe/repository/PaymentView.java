@@ -0,0 +1,20 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.enums.PaymentMethod;
+import com.example.paymentbe.enums.PaymentStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Exactly the columns of a PaymentResponse, selected by constructor expression: no entity, no snapshot
+public record PaymentView(UUID id,
+                          UUID userId,
+                          UUID courseId,
+                          double amount,
+                          PaymentMethod method,
+                          PaymentStatus status,
+                          String paymentReference,
+                          LocalDateTime createdAt,
+                          LocalDateTime updatedAt,
+                          String refundReason) {
+}
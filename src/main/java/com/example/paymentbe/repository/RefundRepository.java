@@ -2,14 +2,62 @@ package com.example.paymentbe.repository;
 
 import com.example.paymentbe.model.Refund;
 import com.example.paymentbe.enums.RefundStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface RefundRepository extends JpaRepository<Refund, UUID> {
+    String SELECT_VIEW = "SELECT new com.example.paymentbe.repository.RefundView(r.id, r.reason, r.processedBy, " +
+                         "r.status, r.createdAt, r.requestedAt, r.processedAt, p.userId, p.courseId, p.amount, " +
+                         "p.method, p.status, p.paymentReference, p.createdAt, p.updatedAt) " +
+                         "FROM Refund r JOIN r.payment p ";
+
     boolean existsByPaymentId(UUID paymentId);
-    List<Refund> findByStatus(RefundStatus status);
-}
\ No newline at end of file
+
+    long countByStatus(RefundStatus status);
+
+    @Query(SELECT_VIEW + "WHERE r.status = :status")
+    List<RefundView> findViewsByStatus(@Param("status") RefundStatus status);
+
+    @Query(SELECT_VIEW + "WHERE r.status = :status ORDER BY r.createdAt ASC, r.id ASC")
+    List<RefundView> findStatusPage(@Param("status") RefundStatus status, Pageable pageable);
+
+    @Query(SELECT_VIEW + "WHERE r.status = :status " +
+           "AND (r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id)) " +
+           "ORDER BY r.createdAt ASC, r.id ASC")
+    List<RefundView> findStatusPageAfter(@Param("status") RefundStatus status,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") UUID id,
+                                         Pageable pageable);
+
+    @Query("SELECT r.status FROM Refund r WHERE r.id = :id")
+    Optional<RefundStatus> findStatusById(@Param("id") UUID id);
+
+    // Refund ids are the payment ids (@MapsId); the physical refunds.id column is a separate surrogate.
+    // Check and write in one statement; returns the ids whose status was one of the allowed ones.
+    @Transactional
+    @Query(value = "UPDATE refunds SET status = :status, processed_at = :processedAt, processed_by = :processedBy, " +
+                   "version = version + 1 WHERE payment_id IN (:ids) AND status IN (:allowed) RETURNING payment_id",
+           nativeQuery = true)
+    List<UUID> updateStatusesIfAllowed(@Param("ids") Collection<UUID> ids,
+                                       @Param("status") String status,
+                                       @Param("allowed") Collection<String> allowed,
+                                       @Param("processedAt") LocalDateTime processedAt,
+                                       @Param("processedBy") String processedBy);
+
+    @Query("SELECT r.id AS id, r.status AS status FROM Refund r WHERE r.id IN :ids")
+    List<RefundStatusView> findStatusesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT r FROM Refund r JOIN FETCH r.payment WHERE r.id IN :ids")
+    List<Refund> findAllWithPaymentByIdIn(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,10 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.enums.RefundStatus;
+
+import java.util.UUID;
+
+public interface RefundStatusView {
+    UUID getId();
+    RefundStatus getStatus();
+}
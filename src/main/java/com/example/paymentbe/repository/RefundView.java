@@ -0,0 +1,26 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.enums.PaymentMethod;
+import com.example.paymentbe.enums.PaymentStatus;
+import com.example.paymentbe.enums.RefundStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A RefundResponse row with its payment's columns; the id is also the payment id
+public record RefundView(UUID id,
+                         String reason,
+                         String processedBy,
+                         RefundStatus status,
+                         LocalDateTime createdAt,
+                         LocalDateTime requestedAt,
+                         LocalDateTime processedAt,
+                         UUID userId,
+                         UUID courseId,
+                         double amount,
+                         PaymentMethod method,
+                         PaymentStatus paymentStatus,
+                         String paymentReference,
+                         LocalDateTime paymentCreatedAt,
+                         LocalDateTime paymentUpdatedAt) {
+}
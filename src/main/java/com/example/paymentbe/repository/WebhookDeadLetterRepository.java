@@ -0,0 +1,9 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.model.WebhookDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WebhookDeadLetterRepository extends JpaRepository<WebhookDeadLetter, Long> {
+}
@@ -0,0 +1,51 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.model.WebhookDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery, Long> {
+    // Copies the outbox events of the given types into the endpoint's deliveries. Events it already
+    // holds are skipped, so accepting a chunk twice does not send it twice.
+    @Transactional
+    @Query(value = "INSERT INTO webhook_deliveries (endpoint, event_id, event_type, aggregate_id, payload, created_at) " +
+                   "SELECT :endpoint, id, event_type, aggregate_id, payload, created_at FROM outbox_events " +
+                   "WHERE id IN (:eventIds) AND event_type IN (:eventTypes) " +
+                   "ON CONFLICT (endpoint, event_id) DO NOTHING RETURNING id", nativeQuery = true)
+    List<Long> enqueue(@Param("endpoint") String endpoint,
+                       @Param("eventIds") Collection<Long> eventIds,
+                       @Param("eventTypes") Collection<String> eventTypes);
+
+    // Same leasing as the outbox relay, per endpoint. RETURNING gives no order guarantee.
+    @Transactional
+    @Query(value = "UPDATE webhook_deliveries SET claimed_until = now() + make_interval(secs => :leaseSeconds) " +
+                   "WHERE id IN (SELECT id FROM webhook_deliveries " +
+                   "WHERE endpoint = :endpoint AND (claimed_until IS NULL OR claimed_until < now()) " +
+                   "ORDER BY event_id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<WebhookDelivery> claimNextBatch(@Param("endpoint") String endpoint,
+                                         @Param("limit") int limit,
+                                         @Param("leaseSeconds") long leaseSeconds);
+
+    @Transactional
+    @Query(value = "UPDATE webhook_deliveries SET claimed_until = NULL WHERE id IN (:ids) RETURNING id",
+           nativeQuery = true)
+    List<Long> releaseClaims(@Param("ids") Collection<Long> ids);
+
+    // Moves the deliveries to the dead letters in one statement, so none is both kept and dead-lettered
+    @Transactional
+    @Query(value = "WITH moved AS (DELETE FROM webhook_deliveries WHERE id IN (:ids) RETURNING *) " +
+                   "INSERT INTO webhook_dead_letters " +
+                   "(endpoint, event_id, event_type, aggregate_id, payload, attempts, last_error, created_at) " +
+                   "SELECT endpoint, event_id, event_type, aggregate_id, payload, :attempts, :lastError, now() " +
+                   "FROM moved RETURNING id", nativeQuery = true)
+    List<Long> deadLetter(@Param("ids") Collection<Long> ids,
+                          @Param("attempts") int attempts,
+                          @Param("lastError") String lastError);
+}
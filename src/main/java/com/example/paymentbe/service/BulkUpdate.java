@@ -0,0 +1,94 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.BulkUpdateResponse;
+import com.example.paymentbe.dto.BulkUpdateResult;
+import com.example.paymentbe.enums.BulkUpdateOutcome;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tracks the outcome of every id in a bulk status change, in the order the ids were given. Ids
+ * are compared as UUIDs, so a repeat in another spelling (upper case, say) is still a repeat;
+ * repeats are reported as DUPLICATE_ID and only the first occurrence is acted on.
+ */
+final class BulkUpdate {
+    static final int MAX_IDS = 1000;
+
+    private final List<String> rawIds;
+    private final List<BulkUpdateResult> results; // Null until the id's outcome is known
+    private final Map<UUID, Integer> positions = new LinkedHashMap<>();
+
+    BulkUpdate(List<String> rawIds) {
+        if (rawIds == null || rawIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one ID is required");
+        }
+        if (rawIds.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Cannot update more than " + MAX_IDS + " IDs at once");
+        }
+        this.rawIds = new ArrayList<>(rawIds);
+        this.results = new ArrayList<>(rawIds.size());
+        for (String rawId : rawIds) {
+            UUID id;
+            try {
+                id = UUID.fromString(rawId);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                results.add(new BulkUpdateResult(rawId, BulkUpdateOutcome.INVALID_ID, null));
+                continue;
+            }
+            Integer first = positions.putIfAbsent(id, results.size());
+            results.add(first == null ? null : new BulkUpdateResult(rawId, BulkUpdateOutcome.DUPLICATE_ID, null));
+        }
+    }
+
+    Set<UUID> ids() {
+        return positions.keySet();
+    }
+
+    void updated(UUID id, String status) {
+        record(id, BulkUpdateOutcome.UPDATED, status);
+    }
+
+    void failed(UUID id, BulkUpdateOutcome outcome, String currentStatus) {
+        record(id, outcome, currentStatus);
+    }
+
+    Set<UUID> unresolved() {
+        Set<UUID> unresolved = new LinkedHashSet<>();
+        positions.forEach((id, position) -> {
+            if (results.get(position) == null) {
+                unresolved.add(id);
+            }
+        });
+        return unresolved;
+    }
+
+    BulkUpdateResponse toResponse() {
+        List<BulkUpdateResult> list = new ArrayList<>(results);
+        int updated = count(list, BulkUpdateOutcome.UPDATED);
+        int unchanged = count(list, BulkUpdateOutcome.UNCHANGED);
+        int duplicates = count(list, BulkUpdateOutcome.DUPLICATE_ID);
+        return BulkUpdateResponse.builder()
+                .total(list.size())
+                .updated(updated)
+                .failed(list.size() - updated - unchanged - duplicates)
+                .results(list)
+                .build();
+    }
+
+    private static int count(List<BulkUpdateResult> results, BulkUpdateOutcome outcome) {
+        return (int) results.stream().filter(r -> r.getOutcome() == outcome).count();
+    }
+
+    private void record(UUID id, BulkUpdateOutcome outcome, String status) {
+        Integer position = positions.get(id);
+        if (position != null) {
+            results.set(position, new BulkUpdateResult(rawIds.get(position), outcome, status));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PaymentRequest;
+import com.example.paymentbe.dto.PaymentResponse;
+
+public interface IdempotencyService {
+    PaymentResponse processPayment(String idempotencyKey, PaymentRequest request);
+}
@@ -0,0 +1,96 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PaymentRequest;
+import com.example.paymentbe.dto.PaymentResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final PaymentService paymentService;
+    private final StripedLruCache<String, PaymentResponse> replays;
+    private final ConcurrentMap<String, CompletableFuture<PaymentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(PaymentService paymentService,
+                                  @Value("${payment.idempotency.cache-size:10000}") int cacheSize,
+                                  @Value("${payment.idempotency.cache-stripes:16}") int cacheStripes) {
+        this.paymentService = paymentService;
+        this.replays = new StripedLruCache<>(cacheSize, cacheStripes);
+    }
+
+    @Override
+    public PaymentResponse processPayment(String idempotencyKey, PaymentRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        PaymentResponse replay = replays.get(idempotencyKey);
+        if (replay != null) {
+            return ensureSameRequest(replay, request);
+        }
+
+        // Concurrent duplicates wait for the first caller instead of charging again
+        CompletableFuture<PaymentResponse> execution = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> running = inFlight.putIfAbsent(idempotencyKey, execution);
+        if (running != null) {
+            return ensureSameRequest(await(running), request);
+        }
+
+        try {
+            PaymentResponse response = executeOnce(idempotencyKey, request);
+            replays.put(idempotencyKey, response);
+            execution.complete(response);
+            return ensureSameRequest(response, request);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, execution);
+        }
+    }
+
+    private PaymentResponse executeOnce(String idempotencyKey, PaymentRequest request) {
+        PaymentResponse stored = paymentService.getPaymentByIdempotencyKey(idempotencyKey).orElse(null);
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            return paymentService.processPayment(request, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // Another node reserved the same key between our lookup and our insert; nothing was charged here
+            return paymentService.getPaymentByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+
+    private PaymentResponse ensureSameRequest(PaymentResponse response, PaymentRequest request) {
+        boolean same = Objects.equals(response.getUserId(), request.getUserId())
+                && Objects.equals(response.getCourseId(), request.getCourseId())
+                && response.getAmount() == request.getAmount()
+                && request.getMethod() != null
+                && request.getMethod().name().equals(response.getPaymentMethod());
+        if (!same) {
+            throw new IllegalStateException("Idempotency-Key was already used for a different payment request");
+        }
+        return response;
+    }
+
+    private PaymentResponse await(CompletableFuture<PaymentResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PageResponse;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+final class KeysetPagination {
+    static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetPagination() {
+    }
+
+    static int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    // One extra row tells us whether another page exists without a COUNT query
+    static PageRequest limitFor(int pageSize) {
+        return PageRequest.ofSize(pageSize + 1);
+    }
+
+    static <E, R> PageResponse<R> toPage(List<E> rows, int pageSize,
+                                         Function<E, R> mapper,
+                                         Function<E, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+
+        return PageResponse.<R>builder()
+                .items(page.stream().map(mapper).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    static boolean isFirstPage(String cursor) {
+        return cursor == null || cursor.isBlank();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.paymentbe.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Listens for payment change notifications from other nodes and evicts those payments locally.
+ * Uses its own connection rather than one from the pool, since LISTEN keeps it busy for good.
+ * While the connection is down the cache is bypassed, and it starts empty after every reconnect
+ * because notifications sent in between are lost.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentChangeListener implements SmartLifecycle {
+    private static final int POLL_MILLIS = 500;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final PaymentResponseCache paymentResponseCache;
+    private final PaymentChangeNotifier paymentChangeNotifier;
+    private final PaymentEventHub paymentEventHub;
+    private final ReadYourWrites readYourWrites;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread thread;
+
+    public PaymentChangeListener(DataSourceProperties dataSourceProperties,
+                                 PaymentResponseCache paymentResponseCache,
+                                 PaymentChangeNotifier paymentChangeNotifier,
+                                 PaymentEventHub paymentEventHub,
+                                 ReadYourWrites readYourWrites,
+                                 @Value("${payment.cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.paymentResponseCache = paymentResponseCache;
+        this.paymentChangeNotifier = paymentChangeNotifier;
+        this.paymentEventHub = paymentEventHub;
+        this.readYourWrites = readYourWrites;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        paymentResponseCache.suspend();
+        thread = Thread.ofPlatform().daemon().name("payment-change-listener").start(this::listen);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + PaymentChangeNotifier.CHANNEL);
+                }
+                connected = true;
+                paymentResponseCache.resume();
+                log.info("Listening for payment changes on channel {}", PaymentChangeNotifier.CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Payment change listener lost its connection, bypassing the cache until it is back: {}",
+                            e.getMessage());
+                }
+            } finally {
+                connected = false;
+                paymentResponseCache.suspend();
+            }
+            if (running && !pause()) {
+                return;
+            }
+        }
+    }
+
+    void handle(String payload) {
+        int separator = payload != null ? payload.indexOf(':') : -1;
+        if (separator < 0) {
+            log.warn("Ignoring malformed payment change notification: {}", payload);
+            return;
+        }
+        if (payload.substring(0, separator).equals(paymentChangeNotifier.getNodeId())) {
+            return;
+        }
+        // One notification may carry several comma-separated ids (bulk updates)
+        for (String id : payload.substring(separator + 1).split(",")) {
+            UUID paymentId;
+            try {
+                paymentId = UUID.fromString(id);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed payment change notification: {}", payload);
+                continue;
+            }
+            // The client may read it back through this node, so give the replica time to catch up
+            readYourWrites.recordWrite(paymentId);
+            paymentResponseCache.invalidate(paymentId);
+            paymentEventHub.paymentChanged(paymentId);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(reconnectDelay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.paymentbe.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Announces that a payment (or its refund) changed: evicts it from this node's cache and sends a
+ * Postgres NOTIFY so every other node evicts it too. Call it inside the writing transaction;
+ * Postgres only delivers the notification if that transaction commits, and this node's event
+ * stream subscribers are only told once it has.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentChangeNotifier {
+    public static final String CHANNEL = "payment_changes";
+
+    // NOTIFY payloads are capped at 8000 bytes; 200 ids is about 7.4 KB
+    static final int IDS_PER_NOTIFICATION = 200;
+
+    // Lets a node recognise, and skip, its own notifications
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final PaymentResponseCache paymentResponseCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final PaymentEventHub paymentEventHub;
+    private final ReadYourWrites readYourWrites;
+
+    public void paymentChanged(UUID paymentId) {
+        readYourWrites.recordWrite(paymentId);
+        paymentResponseCache.invalidate(paymentId);
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, nodeId + ":" + paymentId);
+        TransactionCallbacks.afterCommit(() -> paymentEventHub.paymentChanged(paymentId));
+    }
+
+    /**
+     * Same as {@link #paymentChanged(UUID)} for many payments, with ids sent in batches of up to
+     * 200 comma-separated ids per NOTIFY instead of one NOTIFY each.
+     */
+    public void paymentsChanged(Collection<UUID> paymentIds) {
+        List<String> chunk = new ArrayList<>(IDS_PER_NOTIFICATION);
+        for (UUID paymentId : paymentIds) {
+            readYourWrites.recordWrite(paymentId);
+            paymentResponseCache.invalidate(paymentId);
+            chunk.add(paymentId.toString());
+            if (chunk.size() == IDS_PER_NOTIFICATION) {
+                notify(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            notify(chunk);
+        }
+        List<UUID> changed = List.copyOf(paymentIds);
+        TransactionCallbacks.afterCommit(() -> changed.forEach(paymentEventHub::paymentChanged));
+    }
+
+    private void notify(List<String> paymentIds) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, nodeId + ":" + String.join(",", paymentIds));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
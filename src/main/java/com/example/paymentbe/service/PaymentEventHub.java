@@ -0,0 +1,195 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PaymentResponse;
+import com.example.paymentbe.enums.PaymentStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans payment status changes out to Server-Sent Events subscribers. Idle subscribers hold no
+ * thread (async servlet); each send runs on its own virtual thread so one slow client cannot
+ * hold up the others.
+ */
+@Slf4j
+@Component
+public class PaymentEventHub implements DisposableBean {
+    static final String STATUS_EVENT = "status";
+
+    private final ObjectProvider<PaymentService> paymentService;
+    private final long timeoutMillis;
+    private final Executor sender;
+    private final ScheduledExecutorService heartbeat;
+    private final ConcurrentMap<UUID, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PaymentEventHub(ObjectProvider<PaymentService> paymentService,
+                           @Value("${payment.events.timeout:30m}") Duration timeout,
+                           @Value("${payment.events.heartbeat:20s}") Duration heartbeatInterval,
+                           MeterRegistry meterRegistry) {
+        this(paymentService, timeout, Executors.newVirtualThreadPerTaskExecutor(), meterRegistry);
+        long interval = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    PaymentEventHub(ObjectProvider<PaymentService> paymentService, Duration timeout,
+                    Executor sender, MeterRegistry meterRegistry) {
+        this.paymentService = paymentService;
+        this.timeoutMillis = timeout.toMillis();
+        this.sender = sender;
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("payment-events-heartbeat").factory());
+        Gauge.builder("payment.events.subscribers", this, PaymentEventHub::subscriberCount)
+                .description("Open payment status event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the payment, starting with its current state.
+     */
+    public SseEmitter subscribe(PaymentResponse current) {
+        UUID paymentId = UUID.fromString(current.getPaymentId());
+        Subscription subscription = new Subscription(paymentId, createEmitter(timeoutMillis));
+        subscriptions.compute(paymentId, (id, subscribers) -> {
+            Set<Subscription> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscription);
+            return set;
+        });
+
+        SseEmitter emitter = subscription.emitter;
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> {
+            remove(subscription);
+            emitter.complete();
+        });
+        emitter.onError(error -> remove(subscription));
+        send(subscription, current);
+        return emitter;
+    }
+
+    /**
+     * Pushes the payment's current state to its subscribers on this node, if there are any.
+     */
+    public void paymentChanged(UUID paymentId) {
+        Set<Subscription> subscribers = subscriptions.get(paymentId);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            PaymentResponse current;
+            try {
+                current = paymentService.getObject().getFreshPayment(paymentId.toString());
+            } catch (RuntimeException e) {
+                log.warn("Could not load payment {} for its event stream: {}", paymentId, e.getMessage());
+                return;
+            }
+            for (Subscription subscription : subscribers) {
+                sender.execute(() -> send(subscription, current));
+            }
+        });
+    }
+
+    public int subscriberCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    void sendHeartbeats() {
+        for (Set<Subscription> subscribers : subscriptions.values()) {
+            for (Subscription subscription : subscribers) {
+                sender.execute(() -> subscription.sendHeartbeat(this));
+            }
+        }
+    }
+
+    private void send(Subscription subscription, PaymentResponse payment) {
+        try {
+            subscription.sendIfNewer(payment);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container reports it through onError/onCompletion as well
+            remove(subscription);
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.paymentId, (id, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        subscriptions.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+        subscriptions.clear();
+    }
+
+    private static final class Subscription {
+        private final UUID paymentId;
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private PaymentStatus lastStatus;
+        private LocalDateTime lastUpdatedAt;
+
+        private Subscription(UUID paymentId, SseEmitter emitter) {
+            this.paymentId = paymentId;
+            this.emitter = emitter;
+        }
+
+        // Skips repeats of the status already sent and snapshots older than it
+        void sendIfNewer(PaymentResponse payment) throws IOException {
+            lock.lock();
+            try {
+                if (payment.getStatus() == lastStatus) {
+                    return;
+                }
+                if (lastUpdatedAt != null && payment.getUpdatedAt() != null
+                        && payment.getUpdatedAt().isBefore(lastUpdatedAt)) {
+                    return;
+                }
+                emitter.send(SseEmitter.event()
+                        .name(STATUS_EVENT)
+                        .id(String.valueOf(payment.getStatus()))
+                        .data(payment));
+                lastStatus = payment.getStatus();
+                lastUpdatedAt = payment.getUpdatedAt();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void sendHeartbeat(PaymentEventHub hub) {
+            lock.lock();
+            try {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException e) {
+                hub.remove(this);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PaymentResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of single payment lookups, which clients poll while bank transfers settle.
+ * Entries expire after a TTL and are evicted explicitly whenever the payment or its refund changes.
+ */
+@Component
+public class PaymentResponseCache {
+    static final String CACHE_NAME = "payments";
+
+    private final Cache<UUID, PaymentResponse> cache;
+    // Set while cross-node invalidations cannot be received; reads then go straight to the database
+    private volatile boolean suspended;
+
+    @Autowired
+    public PaymentResponseCache(@Value("${payment.cache.max-size:10000}") long maxSize,
+                                @Value("${payment.cache.ttl:30s}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this(maxSize, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    PaymentResponseCache(long maxSize, Duration ttl, MeterRegistry meterRegistry, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public PaymentResponse get(UUID paymentId, Function<UUID, PaymentResponse> loader) {
+        if (suspended) {
+            return loader.apply(paymentId);
+        }
+        return cache.get(paymentId, loader);
+    }
+
+    /**
+     * Evicts now and again once the surrounding transaction has finished, so a reader that loaded
+     * the old row before the commit cannot leave it cached.
+     */
+    public void invalidate(UUID paymentId) {
+        cache.invalidate(paymentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(paymentId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public void suspend() {
+        suspended = true;
+        cache.invalidateAll();
+    }
+
+    public void resume() {
+        cache.invalidateAll();
+        suspended = false;
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -1,14 +1,30 @@
 package com.example.paymentbe.service;
 
+import com.example.paymentbe.dto.BatchPaymentResponse;
+import com.example.paymentbe.dto.BulkUpdateResponse;
 import com.example.paymentbe.dto.PaymentRequest;
+import com.example.paymentbe.dto.PageResponse;
 import com.example.paymentbe.dto.PaymentResponse;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface PaymentService {
     PaymentResponse processPayment(PaymentRequest request);
+    PaymentResponse processPayment(PaymentRequest request, String idempotencyKey);
+    CompletableFuture<PaymentResponse> processPaymentAsync(PaymentRequest request);
+    BatchPaymentResponse processPayments(List<PaymentRequest> requests);
+    Optional<PaymentResponse> getPaymentByIdempotencyKey(String idempotencyKey);
     PaymentResponse getPayment(String paymentId);
+    PaymentResponse getFreshPayment(String paymentId);
     List<PaymentResponse> getUserPayments(String userId);
+    PageResponse<PaymentResponse> getUserPaymentsPage(String userId, String cursor, int size);
+    void streamUserPayments(String userId, Consumer<PaymentResponse> consumer);
     PaymentResponse updatePaymentStatus(String paymentId, String status);
+    BulkUpdateResponse updatePaymentStatuses(List<String> paymentIds, String status);
     List<PaymentResponse> getPendingPayments();
+    PageResponse<PaymentResponse> getPendingPaymentsPage(String cursor, int size);
+    long countPendingPayments();
 }
\ No newline at end of file
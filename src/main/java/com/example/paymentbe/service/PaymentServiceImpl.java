@@ -1,76 +1,424 @@
 package com.example.paymentbe.service;
 
+import com.example.paymentbe.config.ReplicaRoutingDataSource;
+import com.example.paymentbe.dto.BatchPaymentResponse;
+import com.example.paymentbe.dto.BatchPaymentResult;
+import com.example.paymentbe.dto.BulkUpdateResponse;
+import com.example.paymentbe.dto.PageResponse;
 import com.example.paymentbe.dto.PaymentRequest;
 import com.example.paymentbe.dto.PaymentResponse;
+import com.example.paymentbe.enums.BulkUpdateOutcome;
+import com.example.paymentbe.enums.OutboxEventType;
 import com.example.paymentbe.enums.PaymentMethod;
 import com.example.paymentbe.enums.PaymentStatus;
 import com.example.paymentbe.model.Payment;
 import com.example.paymentbe.repository.PaymentRepository;
+import com.example.paymentbe.repository.PaymentStatusView;
+import com.example.paymentbe.repository.PaymentView;
+import com.example.paymentbe.service.outbox.OutboxService;
+import com.example.paymentbe.service.strategy.GatewayExecutor;
 import com.example.paymentbe.service.strategy.PaymentStrategy;
 import com.example.paymentbe.service.strategy.PaymentStrategyFactory;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentServiceImpl implements PaymentService {
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int STREAM_PAGE_SIZE = 500;
+
     private final PaymentRepository paymentRepository;
     private final PaymentStrategyFactory strategyFactory;
+    private final GatewayExecutor gatewayExecutor;
+    private final PaymentResponseCache paymentResponseCache;
+    private final PaymentChangeNotifier paymentChangeNotifier;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final ReadYourWrites readYourWrites;
 
     @Override
-    @Transactional
     public PaymentResponse processPayment(PaymentRequest request) {
+        return processPayment(request, null);
+    }
+
+    // Deliberately not @Transactional: the gateway call must not hold a pooled connection.
+    // The transaction starts afterwards and only covers the INSERTs.
+    @Override
+    public PaymentResponse processPayment(PaymentRequest request, String idempotencyKey) {
         validatePaymentRequest(request);
         PaymentStrategy strategy = strategyFactory.getStrategy(request.getMethod());
-        boolean isSuccess = strategy.process(request);
-        Payment payment = buildPayment(request, isSuccess);
-        payment = paymentRepository.save(payment);
-        return buildPaymentResponse(payment);
+        if (idempotencyKey == null) {
+            boolean isSuccess = strategy.process(request);
+            return savePayment(buildPayment(request, isSuccess, null));
+        }
+
+        // The key is reserved before the charge, so a retry racing on another node fails on the
+        // unique index (V10) instead of reaching the gateway a second time
+        Payment reserved = reservePayment(buildPayment(request, PaymentStatus.PENDING, idempotencyKey));
+        PaymentStatus outcome;
+        try {
+            outcome = settledStatus(request.getMethod(), strategy.process(request));
+        } catch (RuntimeException e) {
+            recordOutcomes(List.of(reserved), new PaymentStatus[]{PaymentStatus.FAILED});
+            throw e;
+        }
+        PaymentResponse settled = recordOutcomes(List.of(reserved), new PaymentStatus[]{outcome})[0];
+        return settled != null ? settled : buildPaymentResponse(reserved);
+    }
+
+    @Override
+    public CompletableFuture<PaymentResponse> processPaymentAsync(PaymentRequest request) {
+        validatePaymentRequest(request);
+        PaymentStrategy strategy = strategyFactory.getAsyncStrategy(request.getMethod());
+        // The request thread is released while the gateway answers; the INSERT runs once it has
+        return strategy.processAsync(request, gatewayExecutor)
+                .thenApply(isSuccess -> savePayment(buildPayment(request, isSuccess, null)));
+    }
+
+    @Override
+    public BatchPaymentResponse processPayments(List<PaymentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one payment");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + MAX_BATCH_SIZE + " payments");
+        }
+
+        BatchPaymentResult[] results = new BatchPaymentResult[requests.size()];
+        List<Payment> payments = new ArrayList<>(requests.size());
+        List<PaymentStrategy> strategies = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PaymentRequest request = requests.get(i);
+            try {
+                if (request == null) {
+                    throw new IllegalArgumentException("Invalid payment request");
+                }
+                validatePaymentRequest(request);
+                strategies.add(strategyFactory.getStrategy(request.getMethod()));
+                payments.add(buildPayment(request, PaymentStatus.PENDING, null));
+                positions.add(i);
+            } catch (RuntimeException e) {
+                results[i] = rejected(i, e);
+            }
+        }
+
+        // The rows are committed as PENDING before any gateway call, in one flush with
+        // hibernate.jdbc.batch_size grouping the INSERTs, so no charge can end up without its payment
+        List<Payment> saved = transactionTemplate.execute(status -> {
+            List<Payment> inserted = paymentRepository.saveAll(payments);
+            inserted.forEach(payment -> outboxService.record(OutboxEventType.PAYMENT_CREATED, payment.getId(),
+                    buildPaymentResponse(payment)));
+            return inserted;
+        });
+        saved.forEach(this::recordWrite);
+
+        // Gateway calls block, so run them side by side instead of one after another
+        List<CompletableFuture<Boolean>> gatewayCalls = new ArrayList<>(saved.size());
+        for (int j = 0; j < saved.size(); j++) {
+            PaymentStrategy strategy = strategies.get(j);
+            PaymentRequest request = requests.get(positions.get(j));
+            gatewayCalls.add(gatewayExecutor.supplyAsync(() -> strategy.process(request)));
+        }
+        PaymentStatus[] outcomes = new PaymentStatus[saved.size()];
+        String[] errors = new String[saved.size()];
+        for (int j = 0; j < saved.size(); j++) {
+            try {
+                outcomes[j] = settledStatus(saved.get(j).getMethod(), gatewayCalls.get(j).join());
+            } catch (CompletionException e) {
+                outcomes[j] = PaymentStatus.FAILED;
+                errors[j] = (e.getCause() != null ? e.getCause() : e).getMessage();
+            }
+        }
+
+        PaymentResponse[] settled = recordOutcomes(saved, outcomes);
+        for (int j = 0; j < saved.size(); j++) {
+            int index = positions.get(j);
+            results[index] = BatchPaymentResult.builder()
+                    .index(index)
+                    .accepted(true)
+                    .payment(settled[j] != null ? settled[j] : buildPaymentResponse(saved.get(j)))
+                    .error(errors[j])
+                    .build();
+        }
+
+        return BatchPaymentResponse.builder()
+                .total(requests.size())
+                .accepted(saved.size())
+                .rejected(requests.size() - saved.size())
+                .results(List.of(results))
+                .build();
+    }
+
+    // On the primary: a key reserved moments ago on another node may not have reached the replica,
+    // and missing it would charge a second time
+    @Override
+    public Optional<PaymentResponse> getPaymentByIdempotencyKey(String idempotencyKey) {
+        return ReplicaRoutingDataSource.onPrimary(() ->
+                paymentRepository.findByIdempotencyKey(idempotencyKey).map(this::buildPaymentResponse));
     }
 
     @Override
     public PaymentResponse getPayment(String paymentId) {
         UUID paymentUUID = UUID.fromString(paymentId);
-        Payment payment = paymentRepository.findById(paymentUUID)
-                .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
-        return buildPaymentResponse(payment);
+        // findById runs in its own read-only transaction, so a recent write steers it to the primary
+        return paymentResponseCache.get(paymentUUID, id -> readYourWrites.read(id, () ->
+                buildPaymentResponse(paymentRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId)))));
     }
 
+    // Straight from the primary and never cached, for pushing a change that just committed:
+    // going through the cache could put a pre-commit snapshot back into it
     @Override
+    public PaymentResponse getFreshPayment(String paymentId) {
+        UUID paymentUUID = UUID.fromString(paymentId);
+        return ReplicaRoutingDataSource.onPrimary(() -> buildPaymentResponse(paymentRepository.findById(paymentUUID)
+                .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<PaymentResponse> getUserPayments(String userId) {
         UUID userUUID = UUID.fromString(userId);
-        return paymentRepository.findByUserId(userUUID).stream()
+        return readYourWrites.read(userUUID, () -> paymentRepository.findViewsByUserId(userUUID)).stream()
                 .map(this::buildPaymentResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PageResponse<PaymentResponse> getUserPaymentsPage(String userId, String cursor, int size) {
+        UUID userUUID = UUID.fromString(userId);
+        int pageSize = KeysetPagination.clampPageSize(size);
+        PageRequest limit = KeysetPagination.limitFor(pageSize);
+
+        List<PaymentView> rows;
+        if (KeysetPagination.isFirstPage(cursor)) {
+            rows = readYourWrites.read(userUUID, () -> paymentRepository.findUserPage(userUUID, limit));
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = readYourWrites.read(userUUID, () ->
+                    paymentRepository.findUserPageAfter(userUUID, position.getCreatedAt(), position.getId(), limit));
+        }
+        return KeysetPagination.toPage(rows, pageSize, this::buildPaymentResponse, this::cursorOf);
+    }
+
+    // Deliberately not @Transactional: each keyset page is its own short read, so no pooled
+    // connection is held while a slow client drains the response
+    @Override
+    public void streamUserPayments(String userId, Consumer<PaymentResponse> consumer) {
+        UUID userUUID = UUID.fromString(userId);
+        PageRequest limit = PageRequest.ofSize(STREAM_PAGE_SIZE);
+        List<PaymentView> page = readYourWrites.read(userUUID, () -> paymentRepository.findUserPage(userUUID, limit));
+        while (!page.isEmpty()) {
+            page.forEach(payment -> consumer.accept(buildPaymentResponse(payment)));
+            if (page.size() < STREAM_PAGE_SIZE) {
+                return;
+            }
+            PaymentView last = page.get(page.size() - 1);
+            page = readYourWrites.read(userUUID, () ->
+                    paymentRepository.findUserPageAfter(userUUID, last.createdAt(), last.id(), limit));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<PaymentResponse> getPendingPayments() {
-        return paymentRepository.findByStatus(PaymentStatus.PENDING).stream()
+        return paymentRepository.findViewsByStatus(PaymentStatus.PENDING).stream()
                 .map(this::buildPaymentResponse)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<PaymentResponse> getPendingPaymentsPage(String cursor, int size) {
+        int pageSize = KeysetPagination.clampPageSize(size);
+        PageRequest limit = KeysetPagination.limitFor(pageSize);
+
+        List<PaymentView> rows;
+        if (KeysetPagination.isFirstPage(cursor)) {
+            rows = paymentRepository.findStatusPage(PaymentStatus.PENDING, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = paymentRepository.findStatusPageAfter(
+                    PaymentStatus.PENDING, position.getCreatedAt(), position.getId(), limit);
+        }
+        return KeysetPagination.toPage(rows, pageSize, this::buildPaymentResponse, this::cursorOf);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countPendingPayments() {
+        return paymentRepository.countByStatus(PaymentStatus.PENDING);
+    }
+
     @Override
     @Transactional
     public PaymentResponse updatePaymentStatus(String paymentId, String status) {
         UUID paymentUUID = UUID.fromString(paymentId);
-        Payment payment = paymentRepository.findById(paymentUUID)
-                .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
+        PaymentStatus newStatus = parseStatus(status);
+
+        Optional<Payment> updated = paymentRepository.updateStatusIfAllowed(paymentUUID, newStatus.name(),
+                newStatus.adminPredecessorNames(), LocalDateTime.now());
+        if (updated.isEmpty()) {
+            return unchangedPayment(paymentUUID, newStatus);
+        }
+        Payment payment = updated.get();
+        paymentChangeNotifier.paymentChanged(paymentUUID);
+        PaymentResponse response = buildPaymentResponse(payment);
+        outboxService.record(OutboxEventType.PAYMENT_STATUS_CHANGED, paymentUUID, response);
+        return response;
+    }
+
+    // One UPDATE for all ids; the ones it skipped are classified with one SELECT
+    @Override
+    @Transactional
+    public BulkUpdateResponse updatePaymentStatuses(List<String> paymentIds, String status) {
+        BulkUpdate bulk = new BulkUpdate(paymentIds);
+        PaymentStatus newStatus = parseStatus(status);
+        if (bulk.ids().isEmpty()) {
+            return bulk.toResponse();
+        }
+
+        List<UUID> updated = paymentRepository.updateStatusesIfAllowed(bulk.ids(), newStatus.name(),
+                newStatus.adminPredecessorNames(), LocalDateTime.now());
+        updated.forEach(id -> bulk.updated(id, newStatus.name()));
+
+        Set<UUID> skipped = bulk.unresolved();
+        if (!skipped.isEmpty()) {
+            for (PaymentStatusView current : paymentRepository.findStatusesByIdIn(skipped)) {
+                BulkUpdateOutcome outcome = current.getStatus() == newStatus
+                        ? BulkUpdateOutcome.UNCHANGED
+                        : BulkUpdateOutcome.INVALID_TRANSITION;
+                bulk.failed(current.getId(), outcome, current.getStatus().name());
+            }
+            bulk.unresolved().forEach(id -> bulk.failed(id, BulkUpdateOutcome.NOT_FOUND, null));
+        }
+
+        if (!updated.isEmpty()) {
+            for (Payment payment : paymentRepository.findAllWithRefundByIdIn(updated)) {
+                outboxService.record(OutboxEventType.PAYMENT_STATUS_CHANGED, payment.getId(),
+                        buildPaymentResponse(payment));
+            }
+            paymentChangeNotifier.paymentsChanged(updated);
+        }
+        return bulk.toResponse();
+    }
+
+    private PaymentStatus parseStatus(String status) {
+        PaymentStatus newStatus;
         try {
-            PaymentStatus newStatus = PaymentStatus.valueOf(status.toUpperCase());
-            payment.setStatus(newStatus);
-            paymentRepository.save(payment);
-            return buildPaymentResponse(payment);
-        } catch (IllegalArgumentException e) {
+            newStatus = PaymentStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
             throw new IllegalArgumentException("Invalid payment status: " + status);
         }
+        // The refund statuses are only reachable through the refund endpoints
+        if (newStatus.adminPredecessors().isEmpty()) {
+            throw new IllegalArgumentException("Payments can only be set to PAID or FAILED");
+        }
+        return newStatus;
+    }
+
+    // Only reached when the guarded UPDATE matched nothing. Repeating a confirmation is a no-op:
+    // the payment is returned as it is, with no event or notification.
+    private PaymentResponse unchangedPayment(UUID paymentId, PaymentStatus newStatus) {
+        PaymentStatus current = paymentRepository.findStatusById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
+        if (current != newStatus) {
+            throw new IllegalStateException("Cannot change payment status from " + current + " to " + newStatus);
+        }
+        return getPayment(paymentId.toString());
+    }
+
+    // Moves reserved payments from PENDING to their gateway outcome in one transaction. If that
+    // fails the charges are already made, so the payments are left PENDING for the admin queue
+    // rather than failing the request; null entries are payments that stayed PENDING.
+    private PaymentResponse[] recordOutcomes(List<Payment> payments, PaymentStatus[] outcomes) {
+        PaymentResponse[] settled = new PaymentResponse[payments.size()];
+        Map<PaymentStatus, List<UUID>> byOutcome = new EnumMap<>(PaymentStatus.class);
+        for (int j = 0; j < payments.size(); j++) {
+            if (outcomes[j] != PaymentStatus.PENDING) {
+                byOutcome.computeIfAbsent(outcomes[j], status -> new ArrayList<>()).add(payments.get(j).getId());
+            }
+        }
+        if (byOutcome.isEmpty()) {
+            return settled;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return transactionTemplate.execute(status -> {
+                Set<UUID> moved = new HashSet<>();
+                byOutcome.forEach((outcome, ids) -> moved.addAll(paymentRepository.updateStatusesIfAllowed(ids,
+                        outcome.name(), outcome.adminPredecessorNames(), now)));
+                for (int j = 0; j < payments.size(); j++) {
+                    Payment payment = payments.get(j);
+                    if (moved.contains(payment.getId())) {
+                        PaymentResponse response = buildPaymentResponse(payment);
+                        response.setStatus(outcomes[j]);
+                        response.setUpdatedAt(now);
+                        outboxService.record(OutboxEventType.PAYMENT_STATUS_CHANGED, payment.getId(), response);
+                        settled[j] = response;
+                    }
+                }
+                if (!moved.isEmpty()) {
+                    paymentChangeNotifier.paymentsChanged(moved);
+                }
+                return settled;
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not record gateway outcomes for {} payments; they stay PENDING",
+                    payments.size(), e);
+            return new PaymentResponse[payments.size()];
+        }
+    }
+
+    // The payment row and its PAYMENT_CREATED event commit together or not at all
+    private PaymentResponse savePayment(Payment payment) {
+        PaymentResponse saved = transactionTemplate.execute(status -> {
+            PaymentResponse response = buildPaymentResponse(paymentRepository.save(payment));
+            outboxService.record(OutboxEventType.PAYMENT_CREATED, UUID.fromString(response.getPaymentId()), response);
+            return response;
+        });
+        recordWrite(payment);
+        return saved;
+    }
+
+    // Flushed inside the transaction so a duplicate key surfaces here, before any charge
+    private Payment reservePayment(Payment payment) {
+        Payment reserved = transactionTemplate.execute(status -> {
+            Payment inserted = paymentRepository.saveAndFlush(payment);
+            outboxService.record(OutboxEventType.PAYMENT_CREATED, inserted.getId(), buildPaymentResponse(inserted));
+            return inserted;
+        });
+        recordWrite(reserved);
+        return reserved;
+    }
+
+    // Clients poll the new payment and reload their history right after paying
+    private void recordWrite(Payment payment) {
+        readYourWrites.recordWrite(payment.getId());
+        readYourWrites.recordWrite(payment.getUserId());
     }
 
     private void validatePaymentRequest(PaymentRequest request) {
@@ -80,14 +428,22 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
-    private Payment buildPayment(PaymentRequest request, boolean isSuccess) {
+    Payment buildPayment(PaymentRequest request, boolean isSuccess, String idempotencyKey) {
+        return buildPayment(request, settledStatus(request.getMethod(), isSuccess), idempotencyKey);
+    }
+
+    // Bank transfers stay PENDING until the transfer is confirmed
+    private static PaymentStatus settledStatus(PaymentMethod method, boolean isSuccess) {
+        return !isSuccess ? PaymentStatus.FAILED :
+            method == PaymentMethod.BANK_TRANSFER ? PaymentStatus.PENDING : PaymentStatus.PAID;
+    }
+
+    private Payment buildPayment(PaymentRequest request, PaymentStatus status, String idempotencyKey) {
         String ref = "PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         String lastFour = null;
         if (request.getMethod() == PaymentMethod.CREDIT_CARD && request.getCardNumber() != null) {
             lastFour = request.getCardNumber().substring(Math.max(0, request.getCardNumber().length() - 4));
         }
-        PaymentStatus status = !isSuccess ? PaymentStatus.FAILED :
-            request.getMethod() == PaymentMethod.BANK_TRANSFER ? PaymentStatus.PENDING : PaymentStatus.PAID;
 
         return Payment.builder()
                 .userId(request.getUserId())
@@ -98,11 +454,20 @@ public class PaymentServiceImpl implements PaymentService {
                 .bankAccount(request.getBankAccount())
                 .cardLastFour(lastFour)
                 .paymentReference(ref)
+                .idempotencyKey(idempotencyKey)
                 .createdAt(LocalDateTime.now())
                 .build();
     }
 
-    private PaymentResponse buildPaymentResponse(Payment payment) {
+    private BatchPaymentResult rejected(int index, Throwable error) {
+        return BatchPaymentResult.builder().index(index).accepted(false).error(error.getMessage()).build();
+    }
+
+    private KeysetCursor cursorOf(PaymentView payment) {
+        return new KeysetCursor(payment.createdAt(), payment.id());
+    }
+
+    PaymentResponse buildPaymentResponse(Payment payment) {
         return PaymentResponse.builder()
                 .paymentId(payment.getId().toString())
                 .userId(payment.getUserId())
@@ -116,4 +481,19 @@ public class PaymentServiceImpl implements PaymentService {
                 .refundReason(payment.getRefund() != null ? payment.getRefund().getReason() : null)
                 .build();
     }
+
+    PaymentResponse buildPaymentResponse(PaymentView payment) {
+        return PaymentResponse.builder()
+                .paymentId(payment.id().toString())
+                .userId(payment.userId())
+                .courseId(payment.courseId())
+                .amount(payment.amount())
+                .paymentMethod(payment.method().name())
+                .status(payment.status())
+                .paymentReference(payment.paymentReference())
+                .createdAt(payment.createdAt())
+                .updatedAt(payment.updatedAt())
+                .refundReason(payment.refundReason())
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.config.ReplicaLagMonitor;
+import com.example.paymentbe.config.ReplicaRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes on top of replica routing. Keys (payment or user ids) written recently are read
+ * from the primary until the replica has had time to replay the write, judged by the lag last
+ * measured. Without a replica every call simply runs the query.
+ */
+@Component
+public class ReadYourWrites {
+    private final ReplicaLagMonitor lagMonitor;
+    private final Ticker ticker;
+    private final Cache<UUID, Long> recentWrites;
+
+    @Autowired
+    public ReadYourWrites(ObjectProvider<ReplicaLagMonitor> lagMonitor,
+                          @Value("${payment.datasource.replica.max-lag:2s}") Duration maxLag,
+                          @Value("${payment.datasource.replica.lag-check-interval:1s}") Duration lagCheckInterval) {
+        this(lagMonitor.getIfAvailable(), maxLag.plus(lagCheckInterval.multipliedBy(2)), Ticker.systemTicker());
+    }
+
+    // Older writes need no tracking: either the replica is within max-lag, or it is bypassed anyway
+    ReadYourWrites(ReplicaLagMonitor lagMonitor, Duration window, Ticker ticker) {
+        this.lagMonitor = lagMonitor;
+        this.ticker = ticker;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(window)
+                .ticker(ticker)
+                .build();
+    }
+
+    public void recordWrite(UUID key) {
+        if (lagMonitor != null) {
+            recentWrites.put(key, ticker.read());
+        }
+    }
+
+    /**
+     * Runs the query, on the primary if {@code key} was written too recently for the replica to
+     * have it. Inside a read-only transaction this must come before its first statement.
+     */
+    public <T> T read(UUID key, Supplier<T> query) {
+        return requiresPrimary(key) ? ReplicaRoutingDataSource.onPrimary(query) : query.get();
+    }
+
+    boolean requiresPrimary(UUID key) {
+        if (lagMonitor == null) {
+            return false;
+        }
+        Long writtenAt = recentWrites.getIfPresent(key);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            return true;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(ticker.read() - writtenAt);
+        return elapsedMillis <= lagMonitor.getLagMillis() + lagMonitor.getMaxReadingAgeMillis();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.paymentbe.service;
 
+import com.example.paymentbe.dto.BulkUpdateResponse;
+import com.example.paymentbe.dto.PageResponse;
 import com.example.paymentbe.dto.RefundRequest;
 import com.example.paymentbe.dto.RefundResponse;
 import java.util.List;
@@ -7,6 +9,9 @@ import java.util.List;
 public interface RefundService {
     RefundResponse requestRefund(String paymentId, RefundRequest request);
     RefundResponse processRefund(String refundId, String status, String processedBy);
+    BulkUpdateResponse processRefunds(List<String> refundIds, String status, String processedBy);
     List<RefundResponse> getPendingRefunds();
+    PageResponse<RefundResponse> getPendingRefundsPage(String cursor, int size);
+    long countPendingRefunds();
     RefundResponse getRefund(String refundId);
 }
\ No newline at end of file
@@ -1,94 +1,230 @@
 package com.example.paymentbe.service;
 
+import com.example.paymentbe.dto.BulkUpdateResponse;
+import com.example.paymentbe.dto.PageResponse;
 import com.example.paymentbe.dto.PaymentResponse;
 import com.example.paymentbe.dto.RefundRequest;
 import com.example.paymentbe.dto.RefundResponse;
+import com.example.paymentbe.enums.BulkUpdateOutcome;
+import com.example.paymentbe.enums.OutboxEventType;
 import com.example.paymentbe.enums.PaymentStatus;
 import com.example.paymentbe.enums.RefundStatus;
 import com.example.paymentbe.model.Payment;
 import com.example.paymentbe.model.Refund;
 import com.example.paymentbe.repository.PaymentRepository;
 import com.example.paymentbe.repository.RefundRepository;
+import com.example.paymentbe.repository.RefundStatusView;
+import com.example.paymentbe.repository.RefundView;
+import com.example.paymentbe.service.outbox.OutboxService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RefundServiceImpl implements RefundService {
+    private static final int MAX_REFUND_REQUEST_ATTEMPTS = 3;
+    private static final String REFUND_PAYMENT_UNIQUE_INDEX = "idx_refunds_payment_id";
+
     private final PaymentRepository paymentRepository;
     private final RefundRepository refundRepository;
+    private final PaymentChangeNotifier paymentChangeNotifier;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
+    // Each attempt runs in its own transaction. The guarded UPDATE locks the payment row, so concurrent
+    // requests for one payment queue up there and the losers find it already REFUND_REQUESTED; conflicts
+    // that only surface at commit (a duplicate refund row) are retried against fresh state.
     @Override
-    @Transactional
     public RefundResponse requestRefund(String paymentId, RefundRequest request) {
         UUID paymentUUID = UUID.fromString(paymentId);
-        Payment payment = paymentRepository.findById(paymentUUID)
-                .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
-
-        if (payment.getStatus() != PaymentStatus.PAID) {
-            throw new IllegalStateException("Only PAID payments can be refunded");
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> createRefund(paymentUUID, request));
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (!isRefundConflict(e)) {
+                    throw e;
+                }
+                if (attempt == MAX_REFUND_REQUEST_ATTEMPTS) {
+                    throw new IllegalStateException("Payment was modified concurrently, please retry", e);
+                }
+            }
         }
+    }
+
+    private RefundResponse createRefund(UUID paymentUUID, RefundRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        Payment payment = paymentRepository.updateStatusIfAllowed(paymentUUID, PaymentStatus.REFUND_REQUESTED.name(),
+                        PaymentStatus.REFUND_REQUESTED.refundPredecessorNames(), now)
+                .orElseThrow(() -> refundRequestFailure(paymentUUID));
 
+        // A payment can be PAID again after a rejected refund; throwing rolls the UPDATE back
         if (refundRepository.existsByPaymentId(paymentUUID)) {
             throw new IllegalStateException("Refund request already exists for this payment");
         }
-
-        payment.setStatus(PaymentStatus.REFUND_REQUESTED);
-        paymentRepository.save(payment);
+        paymentChangeNotifier.paymentChanged(paymentUUID);
 
         Refund refund = Refund.builder()
                 .payment(payment)
                 .reason(request.getReason())
                 .status(RefundStatus.PENDING)
-                .createdAt(LocalDateTime.now())
-                .requestedAt(LocalDateTime.now())
+                .createdAt(now)
+                .requestedAt(now)
                 .build();
         
         refund = refundRepository.save(refund);
         return buildRefundResponse(refund);
     }
 
+    // A stale version, or a second refund row for the same payment
+    private static boolean isRefundConflict(DataAccessException e) {
+        if (e instanceof OptimisticLockingFailureException) {
+            return true;
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(REFUND_PAYMENT_UNIQUE_INDEX);
+    }
+
     @Override
     @Transactional
     public RefundResponse processRefund(String refundId, String status, String processedBy) {
         UUID refundUUID = UUID.fromString(refundId);
-        Refund refund = refundRepository.findById(refundUUID)
-                .orElseThrow(() -> new RuntimeException("Refund not found with ID: " + refundId));
+        RefundStatus newStatus = parseDecision(status);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<UUID> processed = refundRepository.updateStatusesIfAllowed(List.of(refundUUID), newStatus.name(),
+                newStatus.allowedPredecessorNames(), now, processedBy);
+        if (processed.isEmpty()) {
+            throw refundProcessFailure(refundUUID);
+        }
+        return completeProcessing(processed, newStatus, now).get(0);
+    }
 
-        if (refund.getStatus() != RefundStatus.PENDING) {
-            throw new IllegalStateException("Only PENDING refunds can be processed");
+    // Set-based processRefund: one UPDATE for the refunds, one for their payments, one SELECT
+    // to build the events, all in one transaction
+    @Override
+    @Transactional
+    public BulkUpdateResponse processRefunds(List<String> refundIds, String status, String processedBy) {
+        BulkUpdate bulk = new BulkUpdate(refundIds);
+        RefundStatus newStatus = parseDecision(status);
+        if (bulk.ids().isEmpty()) {
+            return bulk.toResponse();
         }
 
-        RefundStatus newStatus = RefundStatus.valueOf(status.toUpperCase());
-        refund.setProcessedAt(LocalDateTime.now());
-        refund.setProcessedBy(processedBy);
-        refund.setStatus(newStatus);
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> processed = refundRepository.updateStatusesIfAllowed(bulk.ids(), newStatus.name(),
+                newStatus.allowedPredecessorNames(), now, processedBy);
+        processed.forEach(id -> bulk.updated(id, newStatus.name()));
 
-        Payment payment = refund.getPayment();
-        payment.setStatus(newStatus == RefundStatus.ACCEPTED ? 
-                PaymentStatus.REFUNDED : 
-                (newStatus == RefundStatus.REJECTED ? PaymentStatus.PAID : PaymentStatus.REFUND_REQUESTED));
-        
-        paymentRepository.save(payment);
-        refund = refundRepository.save(refund);
-        
-        return buildRefundResponse(refund);
+        Set<UUID> skipped = bulk.unresolved();
+        if (!skipped.isEmpty()) {
+            for (RefundStatusView current : refundRepository.findStatusesByIdIn(skipped)) {
+                bulk.failed(current.getId(), BulkUpdateOutcome.INVALID_TRANSITION, current.getStatus().name());
+            }
+            bulk.unresolved().forEach(id -> bulk.failed(id, BulkUpdateOutcome.NOT_FOUND, null));
+        }
+
+        if (!processed.isEmpty()) {
+            completeProcessing(processed, newStatus, now);
+        }
+        return bulk.toResponse();
+    }
+
+    // Moves the payments of just-decided refunds along and records one event per refund
+    private List<RefundResponse> completeProcessing(List<UUID> processed, RefundStatus newStatus, LocalDateTime now) {
+        PaymentStatus paymentStatus = newStatus.paymentStatus();
+        List<UUID> moved = paymentRepository.updateStatusesIfAllowed(processed, paymentStatus.name(),
+                paymentStatus.refundPredecessorNames(), now);
+        if (moved.size() != processed.size()) {
+            Set<UUID> stranded = new LinkedHashSet<>(processed);
+            moved.forEach(stranded::remove);
+            // Thrown inside the transaction, so the refund decisions roll back with it
+            throw new IllegalStateException("Payments are not awaiting a refund decision: " + stranded);
+        }
+
+        List<RefundResponse> responses = new ArrayList<>(processed.size());
+        for (Refund refund : refundRepository.findAllWithPaymentByIdIn(processed)) {
+            RefundResponse response = buildRefundResponse(refund);
+            outboxService.record(OutboxEventType.REFUND_PROCESSED, refund.getId(), response);
+            responses.add(response);
+        }
+        paymentChangeNotifier.paymentsChanged(processed);
+        return responses;
+    }
+
+    private static RefundStatus parseDecision(String status) {
+        RefundStatus newStatus;
+        try {
+            newStatus = RefundStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid refund status: " + status);
+        }
+        if (!newStatus.isDecision()) {
+            throw new IllegalArgumentException("Refunds can only be processed to ACCEPTED or REJECTED");
+        }
+        return newStatus;
+    }
+
+    // Only reached when a guarded UPDATE matched nothing; tells the two causes apart
+    private RuntimeException refundRequestFailure(UUID paymentId) {
+        return paymentRepository.findStatusById(paymentId)
+                .<RuntimeException>map(current -> new IllegalStateException("Only PAID payments can be refunded"))
+                .orElseGet(() -> new RuntimeException("Payment not found with ID: " + paymentId));
+    }
+
+    private RuntimeException refundProcessFailure(UUID refundId) {
+        return refundRepository.findStatusById(refundId)
+                .<RuntimeException>map(current -> new IllegalStateException("Only PENDING refunds can be processed"))
+                .orElseGet(() -> new RuntimeException("Refund not found with ID: " + refundId));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<RefundResponse> getPendingRefunds() {
-        return refundRepository.findByStatus(RefundStatus.PENDING).stream()
+        return refundRepository.findViewsByStatus(RefundStatus.PENDING).stream()
                 .map(this::buildRefundResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PageResponse<RefundResponse> getPendingRefundsPage(String cursor, int size) {
+        int pageSize = KeysetPagination.clampPageSize(size);
+        PageRequest limit = KeysetPagination.limitFor(pageSize);
+
+        List<RefundView> rows;
+        if (KeysetPagination.isFirstPage(cursor)) {
+            rows = refundRepository.findStatusPage(RefundStatus.PENDING, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = refundRepository.findStatusPageAfter(
+                    RefundStatus.PENDING, position.getCreatedAt(), position.getId(), limit);
+        }
+        return KeysetPagination.toPage(rows, pageSize, this::buildRefundResponse,
+                refund -> new KeysetCursor(refund.createdAt(), refund.id()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countPendingRefunds() {
+        return refundRepository.countByStatus(RefundStatus.PENDING);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public RefundResponse getRefund(String refundId) {
         UUID refundUUID = UUID.fromString(refundId);
         Refund refund = refundRepository.findById(refundUUID)
@@ -110,6 +246,30 @@ public class RefundServiceImpl implements RefundService {
                 .build();
     }
 
+    private RefundResponse buildRefundResponse(RefundView refund) {
+        return RefundResponse.builder()
+                .id(refund.id())
+                .paymentId(refund.id())
+                .reason(refund.reason())
+                .processedBy(refund.processedBy())
+                .status(refund.status())
+                .createdAt(refund.createdAt())
+                .requestedAt(refund.requestedAt())
+                .processedAt(refund.processedAt())
+                .payment(PaymentResponse.builder()
+                        .paymentId(refund.id().toString())
+                        .userId(refund.userId())
+                        .courseId(refund.courseId())
+                        .amount(refund.amount())
+                        .paymentMethod(refund.method().name())
+                        .status(refund.paymentStatus())
+                        .paymentReference(refund.paymentReference())
+                        .createdAt(refund.paymentCreatedAt())
+                        .updatedAt(refund.paymentUpdatedAt())
+                        .build())
+                .build();
+    }
+
     private PaymentResponse buildPaymentResponse(Payment payment) {
         return PaymentResponse.builder()
                 .paymentId(payment.getId().toString())
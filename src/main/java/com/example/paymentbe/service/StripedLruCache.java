@@ -0,0 +1,87 @@
+package com.example.paymentbe.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded LRU map split into independently locked stripes, so concurrent
+ * readers and writers only contend when their keys hash to the same stripe.
+ */
+final class StripedLruCache<K, V> {
+    private final Stripe<K, V>[] stripes;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    StripedLruCache(int capacity, int concurrency) {
+        int stripeCount = concurrency <= 1 ? 1 : Integer.highestOneBit(concurrency - 1) << 1;
+        int perStripe = Math.max(1, capacity / stripeCount);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    V get(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            return stripe.entries.get(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void put(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.put(key, value);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void remove(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private static final class Stripe<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<K, V> entries;
+
+        private Stripe(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+}
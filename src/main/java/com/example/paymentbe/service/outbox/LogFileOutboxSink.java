@@ -0,0 +1,58 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a newline-delimited JSON file. Handy for running the relay locally and for
+ * shipping events with a log forwarder.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.outbox.sink.log.path")
+public class LogFileOutboxSink implements OutboxSink {
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public LogFileOutboxSink(@Value("${payment.outbox.sink.log.path}") Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : events) {
+            lines.append(OutboxEnvelope.toJson(objectMapper, event)).append('\n');
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                // On disk before the relay deletes the rows
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append outbox events to " + path, e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.util.List;
+
+/**
+ * The JSON shape every sink publishes. The stored payload is embedded as-is, without re-parsing.
+ */
+public final class OutboxEnvelope {
+    private OutboxEnvelope() {
+    }
+
+    public static String toJson(ObjectMapper objectMapper, OutboxEvent event) {
+        return write(objectMapper, envelope(objectMapper, event));
+    }
+
+    public static String toJsonArray(ObjectMapper objectMapper, List<OutboxEvent> events) {
+        ArrayNode array = objectMapper.createArrayNode();
+        events.forEach(event -> array.add(envelope(objectMapper, event)));
+        return write(objectMapper, array);
+    }
+
+    private static ObjectNode envelope(ObjectMapper objectMapper, OutboxEvent event) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", event.getId());
+        node.put("type", event.getEventType().name());
+        node.put("aggregateType", event.getEventType().getAggregateType());
+        node.put("aggregateId", event.getAggregateId().toString());
+        node.put("createdAt", String.valueOf(event.getCreatedAt()));
+        node.putRawValue("payload", new RawValue(event.getPayload()));
+        return node;
+    }
+
+    private static String write(ObjectMapper objectMapper, Object node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox events", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.config.Workload;
+import com.example.paymentbe.model.OutboxEvent;
+import com.example.paymentbe.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Drains the outbox in id order, one chunk at a time. A chunk is first leased in its own short
+ * transaction, so relays on several nodes work on different chunks and no lock is held while the
+ * sinks are awaited. It is only deleted once every sink accepted it; otherwise the lease is
+ * released and the chunk is retried. The lease must outlast the slowest sink.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final int chunkSize;
+    private final long leaseSeconds;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSink> sinks,
+                       @Value("${payment.outbox.relay.chunk-size:100}") int chunkSize,
+                       @Value("${payment.outbox.relay.lease:5m}") Duration lease) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.chunkSize = chunkSize;
+        this.leaseSeconds = lease.toSeconds();
+        if (sinks.isEmpty()) {
+            log.warn("No outbox sinks configured; events stay in the outbox until one is");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.relay.interval:1s}")
+    public void relay() {
+        if (sinks.isEmpty()) {
+            return;
+        }
+        Workload.BACKGROUND.run(this::drain);
+    }
+
+    private void drain() {
+        try {
+            while (relayChunk() == chunkSize) {
+                // A full chunk means there may be more waiting
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    int relayChunk() {
+        List<OutboxEvent> chunk = outboxEventRepository.claimNextChunk(chunkSize, leaseSeconds).stream()
+                .sorted(Comparator.comparing(OutboxEvent::getId))
+                .toList();
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = chunk.stream().map(OutboxEvent::getId).toList();
+        try {
+            for (OutboxSink sink : sinks) {
+                sink.publish(chunk);
+            }
+        } catch (RuntimeException e) {
+            outboxEventRepository.releaseClaims(ids);
+            throw e;
+        }
+        outboxEventRepository.deleteAllByIdInBatch(ids);
+        return chunk.size();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.enums.OutboxEventType;
+
+import java.util.UUID;
+
+public interface OutboxService {
+    /**
+     * Adds the event to the outbox as part of the caller's transaction, so it is published
+     * if and only if that transaction commits.
+     */
+    void record(OutboxEventType type, UUID aggregateId, Object payload);
+}
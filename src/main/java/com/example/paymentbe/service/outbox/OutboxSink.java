@@ -0,0 +1,13 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Somewhere the outbox relay publishes events to. Implementations must throw unless the whole
+ * chunk was delivered; the chunk is then kept and retried, so delivery is at least once.
+ */
+public interface OutboxSink {
+    void publish(List<OutboxEvent> events);
+}
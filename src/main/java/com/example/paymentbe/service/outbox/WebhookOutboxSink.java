@@ -0,0 +1,28 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.model.OutboxEvent;
+import com.example.paymentbe.service.webhook.WebhookDispatcher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands each chunk to the {@link WebhookDispatcher}, which stores a delivery per endpoint before
+ * returning. From then on the dispatcher owns the events, so the relay does not wait for any
+ * endpoint. If storing fails nothing was queued, and the relay may safely release the chunk.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.webhooks.enabled", havingValue = "true")
+public class WebhookOutboxSink implements OutboxSink {
+    private final WebhookDispatcher webhookDispatcher;
+
+    public WebhookOutboxSink(WebhookDispatcher webhookDispatcher) {
+        this.webhookDispatcher = webhookDispatcher;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        webhookDispatcher.accept(events);
+    }
+}
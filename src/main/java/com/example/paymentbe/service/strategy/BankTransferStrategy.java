@@ -8,7 +8,6 @@ public class BankTransferStrategy implements PaymentStrategy {
     @Override
     public boolean process(PaymentRequest request) {
         // Simulasi validasi bank transfer sederhana
-        return request.getBankAccount() != null && 
-               request.getBankAccount().matches("^[0-9]{10,20}$");
+        return PaymentDetailsValidator.isValidBankAccount(request.getBankAccount());
     }
-}
\ No newline at end of file
+}
@@ -8,14 +8,8 @@ public class CreditCardStrategy implements PaymentStrategy {
     @Override
     public boolean process(PaymentRequest request) {
         // Simulasi validasi kartu kredit sederhana
-        String cardNumber = request.getCardNumber();
-        String cvc = request.getCardCvc();
-        
-        boolean validCard = cardNumber != null && 
-                          cardNumber.matches("^[0-9]{13,16}$") && 
-                          cvc != null && 
-                          cvc.matches("^[0-9]{3,4}$");
-        
-        return validCard && request.getAmount() > 0;
+        return PaymentDetailsValidator.isValidCardNumber(request.getCardNumber()) &&
+               PaymentDetailsValidator.isValidCvc(request.getCardCvc()) &&
+               request.getAmount() > 0;
     }
-}
\ No newline at end of file
+}
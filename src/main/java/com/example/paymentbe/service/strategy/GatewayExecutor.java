@@ -0,0 +1,45 @@
+package com.example.paymentbe.service.strategy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking payment gateway calls off the caller's thread. With virtual threads enabled every
+ * call gets its own virtual thread; otherwise calls share a fixed pool of platform threads.
+ */
+@Component
+public class GatewayExecutor implements DisposableBean {
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public GatewayExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                           @Value("${payment.gateway.platform-threads:32}") int platformThreads,
+                           MeterRegistry meterRegistry) {
+        this.virtualThreads = virtualThreads;
+        ExecutorService delegate = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gateway-", 0).factory())
+                : Executors.newFixedThreadPool(platformThreads, Thread.ofPlatform().name("gateway-", 0).daemon(true).factory());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, delegate, "payment.gateway");
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.paymentbe.service.strategy;
+
+/**
+ * Thrown when a gateway call is rejected without being attempted because the circuit is open
+ * or the bulkhead is full.
+ */
+public class GatewayUnavailableException extends RuntimeException {
+    public GatewayUnavailableException(String message) {
+        super(message);
+    }
+}
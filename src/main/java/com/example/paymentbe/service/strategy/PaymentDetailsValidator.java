@@ -0,0 +1,69 @@
+package com.example.paymentbe.service.strategy;
+
+/**
+ * Allocation-free checks for card and bank account details. Runs on every payment, so it scans
+ * the characters directly instead of going through regular expressions.
+ */
+public final class PaymentDetailsValidator {
+    public static final int CARD_MIN_LENGTH = 13;
+    public static final int CARD_MAX_LENGTH = 16;
+    public static final int CVC_MIN_LENGTH = 3;
+    public static final int CVC_MAX_LENGTH = 4;
+    public static final int BANK_ACCOUNT_MIN_LENGTH = 10;
+    public static final int BANK_ACCOUNT_MAX_LENGTH = 20;
+
+    private PaymentDetailsValidator() {
+    }
+
+    public static boolean isValidCardNumber(CharSequence cardNumber) {
+        return isDigits(cardNumber, CARD_MIN_LENGTH, CARD_MAX_LENGTH) && passesLuhn(cardNumber);
+    }
+
+    public static boolean isValidCvc(CharSequence cvc) {
+        return isDigits(cvc, CVC_MIN_LENGTH, CVC_MAX_LENGTH);
+    }
+
+    public static boolean isValidBankAccount(CharSequence bankAccount) {
+        return isDigits(bankAccount, BANK_ACCOUNT_MIN_LENGTH, BANK_ACCOUNT_MAX_LENGTH);
+    }
+
+    /**
+     * True if the value is non-null, has a length within the bounds and contains only ASCII digits.
+     */
+    public static boolean isDigits(CharSequence value, int minLength, int maxLength) {
+        if (value == null) {
+            return false;
+        }
+        int length = value.length();
+        if (length < minLength || length > maxLength) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Luhn (mod 10) checksum. Expects a value already known to be all ASCII digits.
+     */
+    public static boolean passesLuhn(CharSequence digits) {
+        int sum = 0;
+        boolean doubleDigit = false;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return sum % 10 == 0;
+    }
+}
@@ -2,6 +2,12 @@ package com.example.paymentbe.service.strategy;
 
 import com.example.paymentbe.dto.PaymentRequest;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface PaymentStrategy {
     boolean process(PaymentRequest request);
-}
\ No newline at end of file
+
+    default CompletableFuture<Boolean> processAsync(PaymentRequest request, GatewayExecutor executor) {
+        return executor.supplyAsync(() -> process(request));
+    }
+}
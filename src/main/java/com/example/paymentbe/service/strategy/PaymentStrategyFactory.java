@@ -1,5 +1,6 @@
 package com.example.paymentbe.service.strategy;
 
+import com.example.paymentbe.config.GatewayProperties;
 import com.example.paymentbe.enums.PaymentMethod;
 import org.springframework.stereotype.Service;
 
@@ -9,12 +10,19 @@ import java.util.Map;
 @Service
 public class PaymentStrategyFactory {
     private final Map<PaymentMethod, PaymentStrategy> strategies;
+    private final Map<PaymentMethod, PaymentStrategy> asyncStrategies;
 
     public PaymentStrategyFactory(BankTransferStrategy bankTransferStrategy,
-                                CreditCardStrategy creditCardStrategy) {
+                                CreditCardStrategy creditCardStrategy,
+                                GatewayProperties gatewayProperties) {
         this.strategies = new EnumMap<>(PaymentMethod.class);
         this.strategies.put(PaymentMethod.BANK_TRANSFER, bankTransferStrategy);
         this.strategies.put(PaymentMethod.CREDIT_CARD, creditCardStrategy);
+
+        // One breaker and bulkhead per provider, so a degraded gateway does not affect the other
+        this.asyncStrategies = new EnumMap<>(PaymentMethod.class);
+        this.strategies.forEach((method, strategy) -> asyncStrategies.put(method,
+                new ResilientPaymentStrategy(method.name(), strategy, gatewayProperties.forMethod(method))));
     }
 
     public PaymentStrategy getStrategy(PaymentMethod method) {
@@ -24,4 +32,12 @@ public class PaymentStrategyFactory {
         }
         return strategy;
     }
-}
\ No newline at end of file
+
+    public PaymentStrategy getAsyncStrategy(PaymentMethod method) {
+        PaymentStrategy strategy = asyncStrategies.get(method);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Invalid payment method");
+        }
+        return strategy;
+    }
+}
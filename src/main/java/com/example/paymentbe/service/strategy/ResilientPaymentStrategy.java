@@ -0,0 +1,83 @@
+package com.example.paymentbe.service.strategy;
+
+import com.example.paymentbe.config.GatewayProperties;
+import com.example.paymentbe.dto.PaymentRequest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards the asynchronous path of a strategy with a timeout, a bulkhead limiting concurrent
+ * gateway calls and a circuit breaker. A declined payment is a healthy gateway answer; only
+ * exceptions and timeouts count as failures.
+ */
+public class ResilientPaymentStrategy implements PaymentStrategy {
+    private final String name;
+    private final PaymentStrategy delegate;
+    private final Duration timeout;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    public ResilientPaymentStrategy(String name, PaymentStrategy delegate, GatewayProperties.Resilience settings) {
+        this(name, delegate, settings.getTimeout(), settings.getMaxConcurrentCalls(),
+                new CircuitBreaker(settings.getFailureThreshold(), settings.getOpenDuration()));
+    }
+
+    ResilientPaymentStrategy(String name, PaymentStrategy delegate, Duration timeout,
+                             int maxConcurrentCalls, CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public boolean process(PaymentRequest request) {
+        return delegate.process(request);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> processAsync(PaymentRequest request, GatewayExecutor executor) {
+        if (!bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new GatewayUnavailableException(name + " gateway is at its concurrency limit"));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(
+                    new GatewayUnavailableException(name + " gateway circuit is open"));
+        }
+
+        CompletableFuture<Boolean> call;
+        try {
+            call = delegate.processAsync(request, executor);
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            circuitBreaker.onFailure();
+            return CompletableFuture.failedFuture(e);
+        }
+        // The permit follows the real call, which keeps running after a timeout
+        call.whenComplete((result, error) -> bulkhead.release());
+
+        return call.copy()
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                    } else {
+                        circuitBreaker.onFailure();
+                    }
+                });
+    }
+
+    CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    int getAvailablePermits() {
+        return bulkhead.availablePermits();
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.paymentbe.service.webhook;
+
+import com.example.paymentbe.config.WebhookProperties;
+import com.example.paymentbe.config.Workload;
+import com.example.paymentbe.enums.OutboxEventType;
+import com.example.paymentbe.model.OutboxEvent;
+import com.example.paymentbe.model.WebhookDelivery;
+import com.example.paymentbe.repository.WebhookDeliveryRepository;
+import com.example.paymentbe.service.outbox.OutboxEnvelope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers outbox events to webhook endpoints. Accepting a chunk stores one delivery row per
+ * subscribed endpoint, after which the outbox can drop it: each endpoint leases and deletes its own
+ * rows, so a slow endpoint only holds back itself. Each endpoint has a limit on requests in flight
+ * and sends its deliveries in batches. Requests are non-blocking ({@link HttpClient#sendAsync}) over
+ * one shared HTTP/2-capable client, so connections are reused. Failed batches are retried with
+ * exponential backoff and jitter under the same lease, then dead-lettered.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.webhooks.enabled", havingValue = "true")
+public class WebhookDispatcher implements DisposableBean {
+    private final WebhookProperties properties;
+    private final WebhookDeliveryRepository deliveryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final long leaseSeconds;
+    private final ExecutorService httpExecutor;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService retryScheduler;
+    private final List<Endpoint> endpoints;
+
+    @Autowired
+    public WebhookDispatcher(WebhookProperties properties,
+                             WebhookDeliveryRepository deliveryRepository,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.deliveryRepository = deliveryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.leaseSeconds = properties.getDeliveryLease().toSeconds();
+        this.httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .executor(httpExecutor)
+                .build();
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("webhook-retry").factory());
+        this.endpoints = properties.getEndpoints().stream().map(Endpoint::new).toList();
+    }
+
+    /**
+     * Stores a delivery for every endpoint subscribed to each event, all in one transaction, then
+     * starts sending. Deliveries an endpoint already holds are kept as they are, so accepting the
+     * same chunk again neither duplicates nor resets them. Returns without waiting for any endpoint.
+     */
+    public void accept(List<OutboxEvent> events) {
+        List<Long> eventIds = events.stream().map(OutboxEvent::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> endpoints.forEach(endpoint ->
+                deliveryRepository.enqueue(endpoint.config.getName(), eventIds, endpoint.eventTypes())));
+        poll();
+    }
+
+    // Picks up deliveries accepted on other nodes and those whose lease ran out
+    @Scheduled(fixedDelayString = "${payment.webhooks.poll-interval:1s}")
+    public void poll() {
+        endpoints.forEach(Endpoint::fill);
+    }
+
+    // Equal jitter: half the exponential delay is fixed, the other half random
+    static long backoffMillis(int attempt, Duration initial, Duration max, double random) {
+        long exponential = initial.toMillis() << Math.min(attempt - 1, 30);
+        long capped = Math.min(max.toMillis(), exponential < 0 ? Long.MAX_VALUE : exponential);
+        return capped / 2 + (long) (capped / 2.0 * random);
+    }
+
+    static boolean isRetryable(HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            return true; // Connection failures and timeouts
+        }
+        int status = response.statusCode();
+        return status == 408 || status == 429 || status >= 500;
+    }
+
+    @Override
+    public void destroy() {
+        retryScheduler.shutdownNow();
+        httpExecutor.shutdownNow();
+    }
+
+    private final class Endpoint {
+        private final WebhookProperties.Endpoint config;
+        private final Semaphore permits;
+        private final Counter delivered;
+        private final Counter retried;
+        private final Counter deadLettered;
+
+        private Endpoint(WebhookProperties.Endpoint config) {
+            this.config = config;
+            this.permits = new Semaphore(config.getMaxConcurrency());
+            this.delivered = outcome("delivered");
+            this.retried = outcome("retried");
+            this.deadLettered = outcome("dead_lettered");
+            Gauge.builder("webhook.requests.in_flight", permits,
+                            p -> config.getMaxConcurrency() - p.availablePermits())
+                    .tag("endpoint", config.getName())
+                    .register(meterRegistry);
+        }
+
+        private Counter outcome(String outcome) {
+            return Counter.builder("webhook.deliveries")
+                    .tag("endpoint", config.getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        List<String> eventTypes() {
+            OutboxEventType[] subscribed = config.getEvents().isEmpty()
+                    ? OutboxEventType.values()
+                    : config.getEvents().toArray(OutboxEventType[]::new);
+            return Arrays.stream(subscribed).map(Enum::name).toList();
+        }
+
+        // Leases a batch for every free request slot
+        void fill() {
+            while (permits.tryAcquire()) {
+                List<WebhookDelivery> batch;
+                try {
+                    batch = Workload.BACKGROUND.call(() ->
+                            deliveryRepository.claimNextBatch(config.getName(), config.getBatchSize(), leaseSeconds));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    log.warn("Could not lease webhook deliveries for {}: {}", config.getName(), e.getMessage());
+                    return;
+                }
+                if (batch.isEmpty()) {
+                    permits.release();
+                    return;
+                }
+                send(batch.stream().sorted(Comparator.comparing(WebhookDelivery::getEventId)).toList(), 1);
+            }
+        }
+
+        // The permit and the lease stay taken across retries, so a failing endpoint slows down
+        // instead of piling up, and no other node sends the batch meanwhile
+        private void send(List<WebhookDelivery> batch, int attempt) {
+            HttpRequest request = HttpRequest.newBuilder(config.getUrl())
+                    .timeout(properties.getRequestTimeout())
+                    .header("Content-Type", "application/json")
+                    .header("X-Webhook-Attempt", String.valueOf(attempt))
+                    .POST(HttpRequest.BodyPublishers.ofString(OutboxEnvelope.toJsonArray(objectMapper,
+                            batch.stream().map(WebhookDispatcher::eventOf).toList())))
+                    .build();
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            CompletableFuture<HttpResponse<Void>> response;
+            try {
+                response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((result, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                sample.stop(Timer.builder("webhook.requests")
+                        .tag("endpoint", config.getName())
+                        .tag("status", cause != null ? "IO_ERROR" : String.valueOf(result.statusCode()))
+                        .register(meterRegistry));
+                onResponse(batch, attempt, result, cause);
+            });
+        }
+
+        private void onResponse(List<WebhookDelivery> batch, int attempt, HttpResponse<Void> response,
+                                Throwable error) {
+            List<Long> ids = batch.stream().map(WebhookDelivery::getId).toList();
+            if (error == null && response.statusCode() / 100 == 2) {
+                delivered.increment(batch.size());
+                store(() -> deliveryRepository.deleteAllByIdInBatch(ids), "remove delivered");
+                release();
+                return;
+            }
+
+            String lastError = error != null ? error.toString() : "HTTP " + response.statusCode();
+            if (attempt < properties.getMaxAttempts() && isRetryable(response, error)) {
+                retried.increment(batch.size());
+                long delay = backoffMillis(attempt, properties.getInitialBackoff(), properties.getMaxBackoff(),
+                        ThreadLocalRandom.current().nextDouble());
+                try {
+                    retryScheduler.schedule(() -> send(batch, attempt + 1), delay, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException shuttingDown) {
+                    // Nothing is in flight for the batch any more, so another node may take it over
+                    store(() -> deliveryRepository.releaseClaims(ids), "release");
+                    permits.release();
+                    return;
+                }
+            }
+
+            log.warn("Dead-lettering {} webhook event(s) for {} after {} attempt(s): {}",
+                    batch.size(), config.getName(), attempt, lastError);
+            String reason = lastError;
+            if (store(() -> deliveryRepository.deadLetter(ids, attempt, reason), "dead-letter")) {
+                deadLettered.increment(batch.size());
+            }
+            release();
+        }
+
+        // A failed write leaves the deliveries leased; they are sent again once the lease runs out
+        private boolean store(Runnable write, String action) {
+            try {
+                Workload.BACKGROUND.run(write);
+                return true;
+            } catch (RuntimeException e) {
+                log.error("Could not {} webhook deliveries for {}", action, config.getName(), e);
+                return false;
+            }
+        }
+
+        private void release() {
+            permits.release();
+            fill();
+        }
+    }
+
+    private static OutboxEvent eventOf(WebhookDelivery delivery) {
+        return OutboxEvent.builder()
+                .id(delivery.getEventId())
+                .eventType(delivery.getEventType())
+                .aggregateId(delivery.getAggregateId())
+                .payload(delivery.getPayload())
+                .createdAt(delivery.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,3 @@
+-- Client-supplied Idempotency-Key; unique so concurrent retries on any node collapse onto one row
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(255);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_payments_idempotency_key ON payments (idempotency_key);
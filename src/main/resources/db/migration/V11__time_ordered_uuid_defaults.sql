@@ -0,0 +1,17 @@
+-- Version 7 (time-ordered) UUIDs for rows whose id is filled in by the database, such as
+-- the refunds surrogate key and payments inserted outside the application
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS UUID
+    LANGUAGE plpgsql VOLATILE AS $$
+DECLARE
+    unix_ms BIGINT := floor(extract(EPOCH FROM clock_timestamp()) * 1000);
+    bytes BYTEA := uuid_send(gen_random_uuid());
+BEGIN
+    -- 48 bit millisecond timestamp, then swap the version nibble from 4 to 7
+    bytes := overlay(bytes PLACING substring(int8send(unix_ms) FROM 3) FROM 1 FOR 6);
+    bytes := set_byte(bytes, 6, (get_byte(bytes, 6) & 15) | 112);
+    RETURN encode(bytes, 'hex')::UUID;
+END
+$$;
+
+ALTER TABLE payments ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE refunds ALTER COLUMN id SET DEFAULT uuid_generate_v7();
@@ -0,0 +1,11 @@
+-- Transactional outbox: events are inserted in the same transaction as the payment/refund
+-- change they describe, then published and deleted by the outbox relay
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY DEFAULT nextval('outbox_events_seq'),
+    event_type VARCHAR(64) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
@@ -0,0 +1,4 @@
+-- Optimistic locking: JPA checks and bumps these on entity updates, the native status UPDATEs bump them too.
+-- refunds.payment_id is already unique (idx_refunds_payment_id, V9), which backs the one-refund-per-payment rule.
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE refunds ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
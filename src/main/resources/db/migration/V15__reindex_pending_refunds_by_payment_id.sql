@@ -0,0 +1,4 @@
+-- Refund ids are shared with their payment (@MapsId), so Hibernate orders and seeks the pending
+-- queue on payment_id, not on the surrogate id column V9 indexed
+DROP INDEX IF EXISTS idx_refunds_pending;
+CREATE INDEX IF NOT EXISTS idx_refunds_pending ON refunds (created_at, payment_id) WHERE status = 'PENDING';
@@ -0,0 +1,3 @@
+-- Relays lease a chunk by stamping claimed_until and commit before publishing, so no row lock
+-- or transaction stays open while sinks are awaited. An expired lease makes the rows claimable again.
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP;
@@ -0,0 +1,14 @@
+-- One row per event and subscribed endpoint, written when the webhook dispatcher accepts an
+-- outbox chunk. Each endpoint leases and deletes its own rows, so a slow endpoint only holds
+-- back itself and the outbox row can be dropped as soon as the deliveries are stored.
+CREATE TABLE IF NOT EXISTS webhook_deliveries (
+    id BIGSERIAL PRIMARY KEY,
+    endpoint VARCHAR(100) NOT NULL,
+    event_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    claimed_until TIMESTAMP,
+    CONSTRAINT uq_webhook_deliveries_endpoint_event UNIQUE (endpoint, event_id)
+);
@@ -0,0 +1,11 @@
+-- Columns mapped by the Payment and Refund entities that earlier migrations never created
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS bank_account VARCHAR(255);
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS card_last_four VARCHAR(255);
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS payment_reference VARCHAR(255);
+
+ALTER TABLE refunds ADD COLUMN IF NOT EXISTS status VARCHAR(20);
+ALTER TABLE refunds ADD COLUMN IF NOT EXISTS processed_at TIMESTAMP;
+
+-- Entities store enums as strings (PAID, REFUND_REQUESTED, ...) which the old enum types do not contain
+ALTER TABLE payments ALTER COLUMN method TYPE VARCHAR(20) USING method::text;
+ALTER TABLE payments ALTER COLUMN status TYPE VARCHAR(20) USING status::text;
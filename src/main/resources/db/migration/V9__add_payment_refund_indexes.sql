@@ -0,0 +1,10 @@
+-- User payment history, newest first (keyset on created_at, id)
+CREATE INDEX IF NOT EXISTS idx_payments_user_created ON payments (user_id, created_at DESC, id DESC);
+
+-- Admin pending queues, oldest first; partial so they stay small as settled rows accumulate
+CREATE INDEX IF NOT EXISTS idx_payments_pending ON payments (created_at, id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_refunds_pending ON refunds (created_at, id) WHERE status = 'PENDING';
+
+-- One refund per payment, and unique payment references
+CREATE UNIQUE INDEX IF NOT EXISTS idx_refunds_payment_id ON refunds (payment_id);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_payments_payment_reference ON payments (payment_reference);
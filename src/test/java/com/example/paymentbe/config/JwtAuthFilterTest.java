@@ -1,5 +1,7 @@
 package com.example.paymentbe.config;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -46,8 +48,8 @@ class JwtAuthFilterTest {
         String token = "valid-token";
         String userId = "user123";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateJwtToken(token)).thenReturn(true);
-        when(jwtUtils.getUserIdFromJwtToken(token)).thenReturn(userId);
+        Claims claims = Jwts.claims().setSubject(userId);
+        when(jwtUtils.getValidatedClaims(token)).thenReturn(claims);
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -56,6 +58,8 @@ class JwtAuthFilterTest {
         verify(filterChain).doFilter(request, response);
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         assertEquals(userId, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(jwtUtils, times(1)).getValidatedClaims(token);
+        verify(jwtUtils, never()).getUserIdFromJwtToken(anyString());
     }
 
     @Test
@@ -63,7 +67,7 @@ class JwtAuthFilterTest {
         // Given
         String token = "invalid-token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateJwtToken(token)).thenReturn(false);
+        when(jwtUtils.getValidatedClaims(token)).thenReturn(null);
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -104,7 +108,7 @@ class JwtAuthFilterTest {
         // Given
         String token = "valid-token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtils.validateJwtToken(token)).thenThrow(new RuntimeException("Validation failed"));
+        when(jwtUtils.getValidatedClaims(token)).thenThrow(new RuntimeException("Validation failed"));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
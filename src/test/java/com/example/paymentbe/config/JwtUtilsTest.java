@@ -1,6 +1,7 @@
 package com.example.paymentbe.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.SignatureException;
@@ -44,31 +45,14 @@ class JwtUtilsTest {
     }
 
     @Test
-    void getSigningKey_WithValidSecret_ShouldReturnKey() throws Exception {
-        // Given
-        JwtUtils utils = new JwtUtils(validSecret);
-        
-        // When - using reflection to access private method
-        java.lang.reflect.Method method = JwtUtils.class.getDeclaredMethod("getSigningKey");
-        method.setAccessible(true);
-        Key result = (Key) method.invoke(utils);
-        
-        // Then
-        assertNotNull(result);
-    }
-
-    @Test
-    void getSigningKey_WithNullSecret_ShouldThrowException() throws Exception {
+    void parseClaims_WithNullSecret_ShouldThrowException() {
         // Given
         JwtUtils utils = new JwtUtils(null);
-        
+        String token = createValidToken("testUser");
+
         // When & Then
-        java.lang.reflect.Method method = JwtUtils.class.getDeclaredMethod("getSigningKey");
-        method.setAccessible(true);
-        
-        assertThrows(java.lang.reflect.InvocationTargetException.class, () -> {
-            method.invoke(utils);
-        });
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> utils.parseClaims(token));
+        assertEquals("JWT secret key is not initialized", exception.getMessage());
     }
 
     @Test
@@ -167,6 +151,110 @@ class JwtUtilsTest {
         assertFalse(result);
     }
 
+    @Test
+    void parseClaims_WithValidToken_ShouldReturnClaims() {
+        // Given
+        String token = createValidToken("testUser");
+
+        // When
+        Claims claims = jwtUtils.parseClaims(token);
+
+        // Then
+        assertEquals("testUser", claims.getSubject());
+    }
+
+    @Test
+    void parseClaims_SameTokenTwice_ShouldServeCachedClaims() {
+        // Given
+        String token = createValidToken("testUser");
+
+        // When
+        Claims first = jwtUtils.parseClaims(token);
+        Claims second = jwtUtils.parseClaims(token);
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(1, jwtUtils.cachedTokenCount());
+    }
+
+    @Test
+    void parseClaims_ChangingReturnedClaims_ShouldNotAffectTheCache() {
+        // Given
+        String token = createValidToken("testUser");
+        jwtUtils.parseClaims(token);
+
+        // When
+        jwtUtils.parseClaims(token).setSubject("someoneElse");
+        Claims claims = jwtUtils.parseClaims(token);
+
+        // Then
+        assertEquals("testUser", claims.getSubject());
+    }
+
+    @Test
+    void parseClaims_WithCacheDisabled_ShouldVerifyEveryTime() {
+        // Given
+        JwtUtils uncached = new JwtUtils(validSecret, 0);
+        String token = createValidToken("testUser");
+
+        // When
+        Claims first = uncached.parseClaims(token);
+        Claims second = uncached.parseClaims(token);
+
+        // Then
+        assertEquals(first.getSubject(), second.getSubject());
+        assertEquals(0, uncached.cachedTokenCount());
+    }
+
+    @Test
+    void parseClaims_WithFullCache_ShouldStillVerifyNewTokens() {
+        // Given
+        JwtUtils smallCache = new JwtUtils(validSecret, 1);
+        String firstToken = createValidToken("firstUser");
+        String secondToken = createValidToken("secondUser");
+
+        // When
+        smallCache.parseClaims(firstToken);
+        Claims claims = smallCache.parseClaims(secondToken);
+
+        // Then
+        assertEquals("secondUser", claims.getSubject());
+        assertEquals(1, smallCache.cachedTokenCount());
+    }
+
+    @Test
+    void parseClaims_WithExpiredToken_ShouldThrowException() {
+        // Given
+        String expiredToken = createExpiredToken("testUser");
+
+        // When & Then
+        assertThrows(ExpiredJwtException.class, () -> jwtUtils.parseClaims(expiredToken));
+    }
+
+    @Test
+    void getValidatedClaims_WithInvalidSignature_ShouldReturnNull() {
+        // Given
+        String token = createTokenWithInvalidSignature();
+
+        // When
+        Claims claims = jwtUtils.getValidatedClaims(token);
+
+        // Then
+        assertNull(claims);
+    }
+
+    @Test
+    void getValidatedClaims_WithNullSecret_ShouldReturnNull() {
+        // Given
+        JwtUtils utils = new JwtUtils(null);
+
+        // When
+        Claims claims = utils.getValidatedClaims(createValidToken("testUser"));
+
+        // Then
+        assertNull(claims);
+    }
+
     private String createValidToken(String userId) {
         Key signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(validSecret));
         
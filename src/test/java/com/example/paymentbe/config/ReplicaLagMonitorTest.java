@@ -0,0 +1,94 @@
+package com.example.paymentbe.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaLagMonitorTest {
+
+    private final JdbcTemplate replica = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+    private final ReplicaLagMonitor monitor =
+            new ReplicaLagMonitor(replica, new ReplicaProperties(), meterRegistry, nanos::get);
+
+    @Test
+    void beforeFirstCheck_ReplicaIsNotUsed() {
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(0, meterRegistry.get("replica.usable").gauge().value());
+    }
+
+    @Test
+    void check_LagWithinMax_UsesReplica() {
+        when(replica.queryForObject(anyString(), eq(Long.class))).thenReturn(300L);
+
+        monitor.check();
+
+        assertTrue(monitor.isReplicaUsable());
+        assertEquals(300L, monitor.getLagMillis());
+        assertEquals(300.0, meterRegistry.get("replica.lag").gauge().value());
+    }
+
+    @Test
+    void check_LagAboveMax_BypassesReplica() {
+        when(replica.queryForObject(anyString(), eq(Long.class))).thenReturn(2_500L);
+
+        monitor.check();
+
+        assertFalse(monitor.isReplicaUsable());
+    }
+
+    @Test
+    void check_Fails_LagBecomesUnknown() {
+        when(replica.queryForObject(anyString(), eq(Long.class)))
+                .thenReturn(0L)
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        monitor.check();
+        assertTrue(monitor.isReplicaUsable());
+        monitor.check();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(ReplicaLagMonitor.UNKNOWN, monitor.getLagMillis());
+    }
+
+    @Test
+    void check_ReadingOlderThanTwoIntervals_BypassesReplica() {
+        when(replica.queryForObject(anyString(), eq(Long.class))).thenReturn(300L);
+
+        monitor.check();
+        advance(2_000);
+        assertTrue(monitor.isReplicaUsable());
+        advance(1);
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(ReplicaLagMonitor.UNKNOWN, monitor.getLagMillis());
+        assertEquals(0, meterRegistry.get("replica.usable").gauge().value());
+    }
+
+    @Test
+    void check_FreshReadingAfterStall_UsesReplicaAgain() {
+        when(replica.queryForObject(anyString(), eq(Long.class))).thenReturn(300L);
+
+        monitor.check();
+        advance(5_000);
+        assertFalse(monitor.isReplicaUsable());
+        monitor.check();
+
+        assertTrue(monitor.isReplicaUsable());
+    }
+
+    private void advance(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
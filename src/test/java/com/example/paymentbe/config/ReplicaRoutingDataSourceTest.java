@@ -0,0 +1,66 @@
+package com.example.paymentbe.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final JdbcTemplate replicaJdbc = mock(JdbcTemplate.class);
+    private final ReplicaLagMonitor lagMonitor =
+            new ReplicaLagMonitor(replicaJdbc, new ReplicaProperties(), new SimpleMeterRegistry());
+    private final ReplicaRoutingDataSource routing =
+            new ReplicaRoutingDataSource(mock(DataSource.class), mock(DataSource.class), lagMonitor);
+
+    @BeforeEach
+    void setUp() {
+        when(replicaJdbc.queryForObject(anyString(), eq(Long.class))).thenReturn(100L);
+        lagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransaction_GoesToReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readWriteTransaction_GoesToPrimary() {
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void onPrimary_OverridesReadOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY,
+                ReplicaRoutingDataSource.onPrimary(routing::determineCurrentLookupKey));
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void laggingReplica_IsBypassed() {
+        when(replicaJdbc.queryForObject(anyString(), eq(Long.class))).thenReturn(5_000L);
+        lagMonitor.check();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+}
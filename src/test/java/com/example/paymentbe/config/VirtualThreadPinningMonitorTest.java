@@ -0,0 +1,68 @@
+package com.example.paymentbe.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ZERO);
+    private final Object lock = new Object();
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void startAndStop_ToggleRunning() {
+        assertFalse(monitor.isRunning());
+        monitor.start();
+        assertTrue(monitor.isRunning());
+        monitor.stop();
+        assertFalse(monitor.isRunning());
+    }
+
+    // Blocking inside synchronized stops pinning from JDK 24 on
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_23)
+    void pinnedVirtualThread_IsRecorded() throws Exception {
+        monitor.start();
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // JFR flushes the event stream about once a second
+        Timer timer = null;
+        for (int i = 0; i < 100 && timer == null; i++) {
+            timer = meterRegistry.find(VirtualThreadPinningMonitor.METRIC_NAME)
+                    .tag("site", VirtualThreadPinningMonitorTest.class.getName())
+                    .timer();
+            Thread.sleep(100);
+        }
+
+        assertNotNull(timer);
+        assertTrue(timer.count() >= 1);
+    }
+
+    @Test
+    void siteOf_NoFrames_IsUnknown() {
+        assertEquals("unknown", VirtualThreadPinningMonitor.siteOf(List.of()));
+    }
+}
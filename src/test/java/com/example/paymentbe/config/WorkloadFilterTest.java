@@ -0,0 +1,32 @@
+package com.example.paymentbe.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadFilterTest {
+
+    private final WorkloadFilter filter = new WorkloadFilter();
+
+    @Test
+    void adminRequest_RunsOnAdminPool() throws Exception {
+        assertEquals(Workload.ADMIN, workloadDuring("/api/v1/payment/admin/pending/page"));
+        assertEquals(Workload.OLTP, Workload.current());
+    }
+
+    @Test
+    void checkoutRequest_RunsOnOltpPool() throws Exception {
+        assertEquals(Workload.OLTP, workloadDuring("/api/v1/payment/batch"));
+    }
+
+    private Workload workloadDuring(String uri) throws Exception {
+        AtomicReference<Workload> seen = new AtomicReference<>();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), new MockHttpServletResponse(),
+                (request, response) -> seen.set(Workload.current()));
+        return seen.get();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.paymentbe.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WorkloadRoutingDataSourceTest {
+
+    private final WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(Map.of(
+            Workload.OLTP, mock(DataSource.class),
+            Workload.ADMIN, mock(DataSource.class),
+            Workload.BACKGROUND, mock(DataSource.class)));
+
+    @Test
+    void unmarkedThread_UsesOltpPool() {
+        assertEquals(Workload.OLTP, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void call_UsesWorkloadPoolAndRestoresPrevious() {
+        Workload inner = Workload.ADMIN.call(() -> {
+            assertEquals(Workload.ADMIN, routing.determineCurrentLookupKey());
+            return Workload.BACKGROUND.call(routing::determineCurrentLookupKey);
+        });
+
+        assertEquals(Workload.BACKGROUND, inner);
+        assertEquals(Workload.OLTP, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void call_ActionThrows_StillRestores() {
+        assertThrows(IllegalStateException.class, () -> Workload.BACKGROUND.run(() -> {
+            throw new IllegalStateException("job failed");
+        }));
+
+        assertEquals(Workload.OLTP, Workload.current());
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.paymentbe.controller;
 
+import com.example.paymentbe.dto.BulkUpdateResponse;
+import com.example.paymentbe.dto.BulkUpdateResult;
 import com.example.paymentbe.dto.ErrorResponse;
+import com.example.paymentbe.dto.PageResponse;
 import com.example.paymentbe.dto.PaymentResponse;
 import com.example.paymentbe.dto.RefundResponse;
+import com.example.paymentbe.enums.BulkUpdateOutcome;
 import com.example.paymentbe.enums.PaymentStatus;
 import com.example.paymentbe.enums.RefundStatus;
 import com.example.paymentbe.service.PaymentService;
@@ -25,6 +29,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -95,6 +100,47 @@ class AdminControllerTest {
         verify(paymentService, times(1)).updatePaymentStatus(paymentId, status);
     }
 
+    @Test
+    void updatePaymentStatuses_Success() throws Exception {
+        // Given
+        String paymentId = UUID.randomUUID().toString();
+        BulkUpdateResponse mockResponse = BulkUpdateResponse.builder()
+                .total(2)
+                .updated(1)
+                .failed(1)
+                .results(List.of(
+                        new BulkUpdateResult(paymentId, BulkUpdateOutcome.UPDATED, "PAID"),
+                        new BulkUpdateResult("bad-id", BulkUpdateOutcome.INVALID_ID, null)))
+                .build();
+
+        when(paymentService.updatePaymentStatuses(List.of(paymentId, "bad-id"), "PAID"))
+                .thenReturn(mockResponse);
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/payment/admin/status/bulk")
+                        .content("{\"paymentIds\":[\"" + paymentId + "\",\"bad-id\"],\"status\":\"PAID\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.results[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$.results[1].outcome").value("INVALID_ID"));
+    }
+
+    @Test
+    void updatePaymentStatuses_ThrowsException_ReturnsBadRequest() throws Exception {
+        // Given
+        when(paymentService.updatePaymentStatuses(anyList(), anyString()))
+                .thenThrow(new IllegalArgumentException("Invalid payment status: NOPE"));
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/payment/admin/status/bulk")
+                        .content("{\"paymentIds\":[\"" + UUID.randomUUID() + "\"],\"status\":\"NOPE\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid payment status: NOPE"))
+                .andExpect(jsonPath("$.errorType").value("STATUS_UPDATE_ERROR"));
+    }
+
     @Test
     void getPendingPayments_Success() throws Exception {
         // Given
@@ -190,6 +236,46 @@ class AdminControllerTest {
         verify(refundService, times(1)).processRefund(refundId, status, processedBy);
     }
 
+    @Test
+    void processRefunds_Success() throws Exception {
+        // Given
+        String refundId = UUID.randomUUID().toString();
+        BulkUpdateResponse mockResponse = BulkUpdateResponse.builder()
+                .total(1)
+                .updated(1)
+                .failed(0)
+                .results(List.of(new BulkUpdateResult(refundId, BulkUpdateOutcome.UPDATED, "ACCEPTED")))
+                .build();
+
+        when(refundService.processRefunds(List.of(refundId), "ACCEPTED", "admin1")).thenReturn(mockResponse);
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/payment/admin/refunds/process/bulk")
+                        .content("{\"refundIds\":[\"" + refundId + "\"],\"status\":\"ACCEPTED\",\"processedBy\":\"admin1\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("ACCEPTED"));
+
+        verify(refundService, times(1)).processRefunds(List.of(refundId), "ACCEPTED", "admin1");
+    }
+
+    @Test
+    void processRefunds_PendingStatus_ReturnsBadRequest() throws Exception {
+        // Given
+        String errorMessage = "Refunds can only be processed to ACCEPTED or REJECTED";
+        when(refundService.processRefunds(anyList(), anyString(), anyString()))
+                .thenThrow(new IllegalArgumentException(errorMessage));
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/payment/admin/refunds/process/bulk")
+                        .content("{\"refundIds\":[\"" + UUID.randomUUID() + "\"],\"status\":\"PENDING\",\"processedBy\":\"admin1\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(errorMessage))
+                .andExpect(jsonPath("$.errorType").value("REFUND_PROCESS_ERROR"));
+    }
+
     @Test
     void getRefund_Success() throws Exception {
         // Given
@@ -228,6 +314,82 @@ class AdminControllerTest {
         verify(refundService, times(1)).getRefund(refundId);
     }
 
+    @Test
+    void getPendingPaymentsPage_Success() throws Exception {
+        // Given
+        PageResponse<PaymentResponse> page = PageResponse.<PaymentResponse>builder()
+                .items(List.of(createMockPaymentResponse("payment1", PaymentStatus.PENDING)))
+                .nextCursor("cursor-1")
+                .hasMore(true)
+                .build();
+        when(paymentService.getPendingPaymentsPage(null, 50)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/payment/admin/pending/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("cursor-1"));
+
+        verify(paymentService, times(1)).getPendingPaymentsPage(null, 50);
+    }
+
+    @Test
+    void getPendingPaymentsPage_InvalidCursor_ReturnsBadRequest() throws Exception {
+        // Given
+        when(paymentService.getPendingPaymentsPage("bad", 50))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/payment/admin/pending/page").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorType").value("PAGINATION_ERROR"));
+    }
+
+    @Test
+    void countPendingPayments_Success() throws Exception {
+        // Given
+        when(paymentService.countPendingPayments()).thenReturn(42L);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/payment/admin/pending/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(42));
+    }
+
+    @Test
+    void getPendingRefundsPage_Success() throws Exception {
+        // Given
+        String refundId = UUID.randomUUID().toString();
+        PageResponse<RefundResponse> page = PageResponse.<RefundResponse>builder()
+                .items(List.of(createMockRefundResponse(refundId, RefundStatus.PENDING)))
+                .hasMore(false)
+                .build();
+        when(refundService.getPendingRefundsPage("cursor-1", 10)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/payment/admin/refunds/pending/page")
+                        .param("cursor", "cursor-1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(refundId))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        verify(refundService, times(1)).getPendingRefundsPage("cursor-1", 10);
+    }
+
+    @Test
+    void countPendingRefunds_Success() throws Exception {
+        // Given
+        when(refundService.countPendingRefunds()).thenReturn(5L);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/payment/admin/refunds/pending/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(5));
+
+        verify(refundService, never()).getPendingRefunds();
+    }
+
     // Helper methods for creating mock objects
     private PaymentResponse createMockPaymentResponse() {
         return createMockPaymentResponse("payment123", PaymentStatus.PAID);
@@ -259,4 +421,4 @@ class AdminControllerTest {
                 .payment(createMockPaymentResponse())
                 .build();
     }
-}
\ No newline at end of file
+}
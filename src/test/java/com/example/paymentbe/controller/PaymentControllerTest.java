@@ -3,31 +3,53 @@ package com.example.paymentbe.controller;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.containsString;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.validation.beanvalidation.MethodValidationInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.paymentbe.dto.BatchPaymentResponse;
+import com.example.paymentbe.dto.BatchPaymentResult;
+import com.example.paymentbe.dto.PageResponse;
 import com.example.paymentbe.dto.PaymentRequest;
 import com.example.paymentbe.dto.PaymentResponse;
 import com.example.paymentbe.dto.RefundRequest;
@@ -35,14 +57,19 @@ import com.example.paymentbe.dto.RefundResponse;
 import com.example.paymentbe.enums.PaymentMethod;
 import com.example.paymentbe.enums.PaymentStatus;
 import com.example.paymentbe.enums.RefundStatus;
+import com.example.paymentbe.service.IdempotencyService;
+import com.example.paymentbe.service.PaymentEventHub;
 import com.example.paymentbe.service.PaymentService;
 import com.example.paymentbe.service.RefundService;
+import com.example.paymentbe.service.strategy.GatewayUnavailableException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @ExtendWith(MockitoExtension.class)
 class PaymentControllerTest {
 
     private MockMvc mockMvc;
+
+    @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
     @Mock
@@ -51,6 +78,12 @@ class PaymentControllerTest {
     @Mock
     private RefundService refundService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private PaymentEventHub paymentEventHub;
+
     @InjectMocks
     private PaymentController paymentController;
 
@@ -82,6 +115,167 @@ class PaymentControllerTest {
                 .build();
     }
 
+    @Test
+    void createPayment_WithoutIdempotencyKey_ProcessesDirectly() throws Exception {
+        when(paymentService.processPayment(any(PaymentRequest.class))).thenReturn(successResponse);
+
+        mockMvc.perform(post("/api/v1/payment")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentId").value(testPaymentId.toString()));
+
+        verify(paymentService).processPayment(any(PaymentRequest.class));
+        verify(idempotencyService, never()).processPayment(anyString(), any(PaymentRequest.class));
+    }
+
+    @Test
+    void createPayment_WithIdempotencyKey_GoesThroughIdempotencyService() throws Exception {
+        when(idempotencyService.processPayment(eq("client-key-1"), any(PaymentRequest.class)))
+                .thenReturn(successResponse);
+
+        mockMvc.perform(post("/api/v1/payment")
+                .header("Idempotency-Key", "client-key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentId").value(testPaymentId.toString()));
+
+        verify(paymentService, never()).processPayment(any(PaymentRequest.class));
+    }
+
+    @Test
+    void createPayment_IdempotencyKeyReused_ReturnsBadRequest() throws Exception {
+        when(idempotencyService.processPayment(eq("client-key-1"), any(PaymentRequest.class)))
+                .thenThrow(new IllegalStateException("Idempotency-Key was already used for a different payment request"));
+
+        mockMvc.perform(post("/api/v1/payment")
+                .header("Idempotency-Key", "client-key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorType").value("PAYMENT_ERROR"));
+    }
+
+    @Test
+    void createPaymentAsync_Success() throws Exception {
+        when(paymentService.processPaymentAsync(any(PaymentRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(successResponse));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/payment/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentId").value(testPaymentId.toString()));
+    }
+
+    @Test
+    void createPaymentAsync_GatewayShedsLoad_ReturnsServiceUnavailable() throws Exception {
+        when(paymentService.processPaymentAsync(any(PaymentRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new GatewayUnavailableException("CREDIT_CARD gateway circuit is open")));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/payment/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errorType").value("GATEWAY_UNAVAILABLE"))
+                .andExpect(jsonPath("$.message").value("CREDIT_CARD gateway circuit is open"));
+    }
+
+    @Test
+    void createPaymentAsync_GatewayTimeout_ReturnsServiceUnavailable() throws Exception {
+        when(paymentService.processPaymentAsync(any(PaymentRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/payment/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Payment gateway timed out"));
+    }
+
+    @Test
+    void createPaymentAsync_InvalidRequest_ReturnsBadRequest() throws Exception {
+        when(paymentService.processPaymentAsync(any(PaymentRequest.class)))
+                .thenThrow(new IllegalArgumentException("Invalid payment request"));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/payment/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorType").value("PAYMENT_ERROR"));
+    }
+
+    @Test
+    void createPayments_ReturnsPerItemResults() throws Exception {
+        BatchPaymentResponse batch = BatchPaymentResponse.builder()
+                .total(2)
+                .accepted(1)
+                .rejected(1)
+                .results(List.of(
+                        BatchPaymentResult.builder().index(0).accepted(true).payment(successResponse).build(),
+                        BatchPaymentResult.builder().index(1).accepted(false).error("Invalid payment request").build()))
+                .build();
+        when(paymentService.processPayments(anyList())).thenReturn(batch);
+
+        mockMvc.perform(post("/api/v1/payment/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(validRequest, validRequest))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.results[0].payment.paymentId").value(testPaymentId.toString()))
+                .andExpect(jsonPath("$.results[1].error").value("Invalid payment request"));
+    }
+
+    @Test
+    void createPayments_RejectedBatch_ReturnsBadRequest() throws Exception {
+        when(paymentService.processPayments(anyList()))
+                .thenThrow(new IllegalArgumentException("Batch must contain at least one payment"));
+
+        mockMvc.perform(post("/api/v1/payment/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorType").value("BATCH_PAYMENT_ERROR"));
+    }
+
+    @Test
+    void createPayments_InvalidItem_RejectsTheBatch() throws Exception {
+        // The controller is proxied the way MethodValidationPostProcessor does it for @Validated beans
+        ProxyFactory proxy = new ProxyFactory(paymentController);
+        proxy.setProxyTargetClass(true);
+        proxy.addAdvice(new MethodValidationInterceptor());
+        MockMvc validating = MockMvcBuilders.standaloneSetup(proxy.getProxy()).build();
+        PaymentRequest invalid = new PaymentRequest();
+        invalid.setUserId(testUserId);
+        invalid.setCourseId(testCourseId);
+        invalid.setAmount(-5.0);
+        invalid.setMethod(PaymentMethod.CREDIT_CARD);
+
+        validating.perform(post("/api/v1/payment/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(validRequest, invalid))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorType").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.message").value(containsString("Amount must be positive")));
+
+        verify(paymentService, never()).processPayments(anyList());
+    }
+
     @Test
     void getPayment_Success() throws Exception {
         when(paymentService.getPayment(testPaymentId.toString())).thenReturn(successResponse);
@@ -103,6 +297,36 @@ class PaymentControllerTest {
         verify(paymentService).getPayment("nonexistent");
     }
 
+    @Test
+    void streamPaymentEvents_PushesEventsFromHub() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(paymentService.getPayment(testPaymentId.toString())).thenReturn(successResponse);
+        when(paymentEventHub.subscribe(successResponse)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/payment/{paymentId}/events", testPaymentId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("status").data("PAID"));
+        emitter.complete();
+
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, result.getResponse().getContentType());
+        assertTrue(result.getResponse().getContentAsString().contains("event:status\ndata:PAID\n\n"));
+    }
+
+    @Test
+    void streamPaymentEvents_NotFound_SendsErrorEvent() throws Exception {
+        when(paymentService.getPayment(anyString())).thenThrow(new RuntimeException("Payment not found"));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/payment/{paymentId}/events", "nonexistent"))
+                .andExpect(status().isNotFound())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:error"));
+        assertTrue(body.contains("NOT_FOUND"));
+        verify(paymentEventHub, never()).subscribe(any());
+    }
+
     @Test
     void requestRefund_Success() throws Exception {
         RefundRequest refundRequest = new RefundRequest();
@@ -162,4 +386,68 @@ class PaymentControllerTest {
 
         verify(paymentService).getUserPayments("user123");
     }
+
+    @Test
+    void getUserPaymentsPage_Success() throws Exception {
+        PageResponse<PaymentResponse> page = PageResponse.<PaymentResponse>builder()
+                .items(List.of(PaymentResponse.builder().paymentId("1").build()))
+                .nextCursor("next")
+                .hasMore(true)
+                .build();
+        when(paymentService.getUserPaymentsPage("user123", null, 20)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/payment/user/{userId}/page", "user123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(paymentService).getUserPaymentsPage("user123", null, 20);
+    }
+
+    @Test
+    void getUserPaymentsPage_InvalidCursor_ReturnsBadRequest() throws Exception {
+        when(paymentService.getUserPaymentsPage(eq("user123"), eq("bad"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/api/v1/payment/user/{userId}/page", "user123").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorType").value("PAGINATION_ERROR"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamUserPayments_WritesNdjsonLines() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<PaymentResponse> consumer = invocation.getArgument(1);
+            consumer.accept(PaymentResponse.builder().paymentId("1").build());
+            consumer.accept(PaymentResponse.builder().paymentId("2").build());
+            return null;
+        }).when(paymentService).streamUserPayments(eq(testUserId.toString()), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/payment/user/{userId}/stream", testUserId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("1", objectMapper.readTree(lines[0]).get("paymentId").asText());
+        assertEquals("2", objectMapper.readTree(lines[1]).get("paymentId").asText());
+    }
+
+    @Test
+    void streamUserPayments_InvalidUserId_ReturnsBadRequest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/payment/user/{userId}/stream", "not-a-uuid"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+
+        verify(paymentService, never()).streamUserPayments(anyString(), any());
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.paymentbe.enums;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class PaymentStatusTest {
@@ -28,4 +31,50 @@ class PaymentStatusTest {
         assertSame(PaymentStatus.REFUND_REQUESTED, PaymentStatus.valueOf("REFUND_REQUESTED"));
         assertSame(PaymentStatus.REFUNDED, PaymentStatus.valueOf("REFUNDED"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAdminTransitions() {
+        assertTrue(PaymentStatus.PENDING.canAdminTransitionTo(PaymentStatus.PAID));
+        assertTrue(PaymentStatus.PENDING.canAdminTransitionTo(PaymentStatus.FAILED));
+
+        assertFalse(PaymentStatus.PAID.canAdminTransitionTo(PaymentStatus.PAID));
+        assertFalse(PaymentStatus.PAID.canAdminTransitionTo(PaymentStatus.REFUND_REQUESTED));
+        assertFalse(PaymentStatus.REFUND_REQUESTED.canAdminTransitionTo(PaymentStatus.PAID));
+        assertFalse(PaymentStatus.REFUND_REQUESTED.canAdminTransitionTo(PaymentStatus.REFUNDED));
+        assertFalse(PaymentStatus.REFUNDED.canAdminTransitionTo(PaymentStatus.REFUNDED));
+        assertFalse(PaymentStatus.FAILED.canAdminTransitionTo(PaymentStatus.PAID));
+        assertFalse(PaymentStatus.PAID.canAdminTransitionTo(PaymentStatus.PENDING));
+    }
+
+    @Test
+    void testRefundTransitions() {
+        assertTrue(PaymentStatus.PAID.canRefundTransitionTo(PaymentStatus.REFUND_REQUESTED));
+        assertTrue(PaymentStatus.REFUND_REQUESTED.canRefundTransitionTo(PaymentStatus.REFUNDED));
+        assertTrue(PaymentStatus.REFUND_REQUESTED.canRefundTransitionTo(PaymentStatus.PAID));
+
+        assertFalse(PaymentStatus.PENDING.canRefundTransitionTo(PaymentStatus.PAID));
+        assertFalse(PaymentStatus.PENDING.canRefundTransitionTo(PaymentStatus.REFUNDED));
+        assertFalse(PaymentStatus.REFUND_REQUESTED.canRefundTransitionTo(PaymentStatus.REFUND_REQUESTED));
+        assertFalse(PaymentStatus.REFUNDED.canRefundTransitionTo(PaymentStatus.REFUNDED));
+        assertFalse(PaymentStatus.REFUNDED.canRefundTransitionTo(PaymentStatus.PAID));
+    }
+
+    @Test
+    void testTransitionsMatchPredecessorSets() {
+        for (PaymentStatus from : PaymentStatus.values()) {
+            for (PaymentStatus to : PaymentStatus.values()) {
+                assertEquals(to.adminPredecessors().contains(from), from.canAdminTransitionTo(to), from + " -> " + to);
+                assertEquals(to.refundPredecessors().contains(from), from.canRefundTransitionTo(to), from + " -> " + to);
+            }
+        }
+    }
+
+    @Test
+    void testPredecessorNames() {
+        assertEquals(List.of("PENDING"), PaymentStatus.PAID.adminPredecessorNames());
+        assertEquals(List.of("REFUND_REQUESTED"), PaymentStatus.PAID.refundPredecessorNames());
+        assertEquals(List.of(), PaymentStatus.REFUNDED.adminPredecessorNames());
+        assertThrows(UnsupportedOperationException.class,
+                () -> PaymentStatus.PAID.adminPredecessors().add(PaymentStatus.FAILED));
+    }
+}
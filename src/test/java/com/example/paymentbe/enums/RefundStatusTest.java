@@ -1,6 +1,9 @@
 package com.example.paymentbe.enums;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RefundStatusTest {
@@ -31,4 +34,30 @@ class RefundStatusTest {
         assertSame(RefundStatus.ACCEPTED, RefundStatus.valueOf("ACCEPTED"));
         assertSame(RefundStatus.REJECTED, RefundStatus.valueOf("REJECTED"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTransitions() {
+        assertTrue(RefundStatus.PENDING.canTransitionTo(RefundStatus.ACCEPTED));
+        assertTrue(RefundStatus.PENDING.canTransitionTo(RefundStatus.REJECTED));
+
+        assertFalse(RefundStatus.ACCEPTED.canTransitionTo(RefundStatus.REJECTED));
+        assertFalse(RefundStatus.REJECTED.canTransitionTo(RefundStatus.ACCEPTED));
+        assertFalse(RefundStatus.PENDING.canTransitionTo(RefundStatus.PENDING));
+        assertEquals(List.of("PENDING"), RefundStatus.ACCEPTED.allowedPredecessorNames());
+        assertTrue(RefundStatus.PENDING.allowedPredecessors().isEmpty());
+    }
+
+    @Test
+    void testDecisions() {
+        assertFalse(RefundStatus.PENDING.isDecision());
+        assertTrue(RefundStatus.ACCEPTED.isDecision());
+        assertTrue(RefundStatus.REJECTED.isDecision());
+    }
+
+    @Test
+    void testPaymentStatus() {
+        assertEquals(PaymentStatus.REFUND_REQUESTED, RefundStatus.PENDING.paymentStatus());
+        assertEquals(PaymentStatus.REFUNDED, RefundStatus.ACCEPTED.paymentStatus());
+        assertEquals(PaymentStatus.PAID, RefundStatus.REJECTED.paymentStatus());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.paymentbe.model;
+
+import org.hibernate.generator.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidGeneratorTest {
+
+    private final TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator();
+
+    @Test
+    void next_IsVersion7WithRfcVariant() {
+        UUID id = generator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void next_EncodesMillisecondTimestamp() {
+        long now = 1_760_000_000_000L;
+
+        UUID id = generator.next(now);
+
+        assertEquals(now, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void next_IsStrictlyIncreasingWithinOneMillisecond() {
+        long now = 1_760_000_000_000L;
+        UUID previous = generator.next(now);
+
+        // More ids than the 12 bit counter holds, so the overflow path is covered too
+        for (int i = 0; i < 10_000; i++) {
+            UUID current = generator.next(now);
+            assertTrue(current.compareTo(previous) > 0, "id " + i + " is not after its predecessor");
+            previous = current;
+        }
+    }
+
+    @Test
+    void next_DoesNotGoBackwardsWhenClockDoes() {
+        UUID later = generator.next(1_760_000_000_500L);
+        UUID earlier = generator.next(1_760_000_000_000L);
+
+        assertTrue(earlier.compareTo(later) > 0);
+    }
+
+    @Test
+    void next_IsUnique() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(generator.next()));
+        }
+    }
+
+    @Test
+    void generate_OnlyRunsOnInsert() {
+        assertTrue(generator.getEventTypes().contains(EventType.INSERT));
+        assertFalse(generator.getEventTypes().contains(EventType.UPDATE));
+        assertInstanceOf(UUID.class, generator.generate(null, null, null, EventType.INSERT));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.enums.PaymentStatus;
+import com.example.paymentbe.enums.RefundStatus;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the Flyway migrations against a throwaway Postgres, seeds a realistic volume of rows
+ * and checks that the main read paths are planned as index scans rather than sequential scans.
+ * The page queries are explained as Hibernate renders them, so a mapping detail such as the
+ * shared refund id cannot drift away from the index it is meant to hit.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentQueryPlanTest {
+
+    private static final String USER_ID = "00000000-0000-0000-0000-000000000042";
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @TestConfiguration
+    static class StatementCapture {
+        @Bean
+        HibernatePropertiesCustomizer statementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                statements.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // 50k payments spread over 2k users, ~2% still pending
+            statement.execute("""
+                    INSERT INTO payments (user_id, course_id, amount, method, status, payment_reference, created_at)
+                    SELECT ('00000000-0000-0000-0000-' || lpad((g % 2000)::text, 12, '0'))::uuid,
+                           gen_random_uuid(),
+                           100,
+                           CASE WHEN g % 2 = 0 THEN 'CREDIT_CARD' ELSE 'BANK_TRANSFER' END,
+                           CASE WHEN g % 50 = 0 THEN 'PENDING' WHEN g % 7 = 0 THEN 'FAILED' ELSE 'PAID' END,
+                           'PAY-' || g,
+                           now() - g * interval '1 minute'
+                    FROM generate_series(1, 50000) AS g
+                    """);
+            // A refund for every 10th payment, ~5% of them pending
+            statement.execute("""
+                    INSERT INTO refunds (payment_id, reason, status, created_at, requested_at)
+                    SELECT id, 'test', CASE WHEN row_number() OVER () % 20 = 0 THEN 'PENDING' ELSE 'ACCEPTED' END,
+                           created_at, created_at
+                    FROM payments
+                    WHERE right(payment_reference, 1) = '0'
+                    """);
+            statement.execute("VACUUM ANALYZE payments");
+            statement.execute("VACUUM ANALYZE refunds");
+        }
+    }
+
+    @Test
+    void userHistoryPage_UsesUserCreatedIndex() throws SQLException {
+        UUID userId = UUID.fromString(USER_ID);
+        String plan = explainGenerated(() -> paymentRepository.findUserPage(userId, PageRequest.of(0, 21)),
+                userId, 21);
+
+        assertThat(plan).contains("idx_payments_user_created").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void pendingPaymentsPage_UsesPartialIndex() throws SQLException {
+        String plan = explainGenerated(() -> paymentRepository.findStatusPage(PaymentStatus.PENDING,
+                PageRequest.of(0, 51)), PaymentStatus.PENDING.name(), 51);
+
+        assertThat(plan).contains("idx_payments_pending").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void pendingPaymentsCount_UsesPartialIndex() throws SQLException {
+        String plan = explain("SELECT count(*) FROM payments WHERE status = 'PENDING'");
+
+        assertThat(plan).contains("idx_payments_pending").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void pendingRefundsPage_UsesPartialIndex() throws SQLException {
+        String plan = explainGenerated(() -> refundRepository.findStatusPage(RefundStatus.PENDING,
+                PageRequest.of(0, 51)), RefundStatus.PENDING.name(), 51);
+
+        assertThat(plan).contains("idx_refunds_pending").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void refundExistsByPaymentId_UsesUniqueIndex() throws SQLException {
+        String plan = explain("SELECT 1 FROM refunds WHERE payment_id = '" + USER_ID + "'");
+
+        assertThat(plan).contains("idx_refunds_payment_id").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void duplicatePaymentReference_IsRejected() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.execute("""
+                    INSERT INTO payments (user_id, course_id, amount, method, status, payment_reference)
+                    VALUES (gen_random_uuid(), gen_random_uuid(), 1, 'CREDIT_CARD', 'PAID', 'PAY-1')
+                    """));
+        }
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN (FORMAT TEXT) " + sql)) {
+            return plan(resultSet);
+        }
+    }
+
+    // Runs the repository call, then explains the one statement Hibernate sent for it with the
+    // given bind values (the page size last)
+    private static String explainGenerated(Runnable query, Object... parameters) throws SQLException {
+        statements.clear();
+        query.run();
+        assertThat(statements).hasSize(1);
+
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT TEXT) " + statements.get(0))) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return plan(resultSet);
+            }
+        }
+    }
+
+    private static String plan(ResultSet resultSet) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        while (resultSet.next()) {
+            plan.append(resultSet.getString(1)).append('\n');
+        }
+        return plan.toString();
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
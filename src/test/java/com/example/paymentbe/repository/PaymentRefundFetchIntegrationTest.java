@@ -0,0 +1,149 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.enums.PaymentMethod;
+import com.example.paymentbe.enums.PaymentStatus;
+import com.example.paymentbe.enums.RefundStatus;
+import com.example.paymentbe.model.Payment;
+import com.example.paymentbe.model.Refund;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements Hibernate prepares when payments are loaded with their refunds. However
+ * many payments a user has, listing them must cost one query, not one per payment.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentRefundFetchIntegrationTest {
+
+    private static final int PAYMENTS = 10;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        for (int i = 0; i < PAYMENTS; i++) {
+            Payment payment = payment(i % 2 == 0 ? PaymentStatus.PAID : PaymentStatus.REFUND_REQUESTED);
+            if (payment.getStatus() == PaymentStatus.REFUND_REQUESTED) {
+                payment.addRefund(Refund.builder()
+                        .reason("Reason " + i)
+                        .status(RefundStatus.PENDING)
+                        .requestedAt(LocalDateTime.now())
+                        .build());
+            }
+            entityManager.persist(payment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findByUserId_LoadsRefundsInTheSameQuery() {
+        List<Payment> payments = paymentRepository.findByUserId(userId);
+
+        assertEquals(PAYMENTS, payments.size());
+        assertEquals(PAYMENTS / 2, refundReasons(payments));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByStatus_LoadsRefundsInTheSameQuery() {
+        List<Payment> payments = paymentRepository.findByStatus(PaymentStatus.REFUND_REQUESTED);
+
+        assertTrue(payments.size() >= PAYMENTS / 2);
+        assertEquals(payments.size(), refundReasons(payments));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_LoadsRefundInTheSameQuery() {
+        UUID paymentId = paymentRepository.findViewsByUserId(userId).stream()
+                .filter(view -> view.refundReason() != null)
+                .findFirst()
+                .orElseThrow()
+                .id();
+        statistics.clear();
+
+        Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+
+        assertNotNull(payment.getRefund().getReason());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void userPaymentViews_AreOneQuery() {
+        List<PaymentView> views = paymentRepository.findViewsByUserId(userId);
+
+        assertEquals(PAYMENTS, views.size());
+        assertEquals(PAYMENTS / 2, views.stream().map(PaymentView::refundReason).filter(Objects::nonNull).count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private static long refundReasons(List<Payment> payments) {
+        return payments.stream()
+                .map(Payment::getRefund)
+                .filter(Objects::nonNull)
+                .map(Refund::getReason)
+                .filter(Objects::nonNull)
+                .count();
+    }
+
+    private Payment payment(PaymentStatus status) {
+        return Payment.builder()
+                .userId(userId)
+                .courseId(UUID.randomUUID())
+                .amount(100.0)
+                .method(PaymentMethod.CREDIT_CARD)
+                .status(status)
+                .paymentReference("PAY-" + UUID.randomUUID())
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.model.TimeOrderedUuidGenerator;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares random (v4) against time-ordered (v7) primary keys on a copy of the payments table:
+ * batched insert throughput and the resulting primary key index size. Run with
+ * {@code ./gradlew benchmarkTest}; excluded from the regular test task.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class PrimaryKeyInsertBenchmark {
+
+    private static final int ROWS = 500_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            // Small buffer cache so the random key index stops fitting in memory, as it does at volume
+            .withCommand("postgres", "-c", "shared_buffers=32MB");
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void timeOrderedKeys_InsertFasterIntoSmallerIndex() throws SQLException {
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator();
+
+        Result random = run("payments_v4", UUID::randomUUID);
+        Result timeOrdered = run("payments_v7", generator::next);
+
+        System.out.printf("%-12s %,12.0f rows/s %,10d kB pkey%n", "uuid v4", random.rowsPerSecond(), random.indexKb());
+        System.out.printf("%-12s %,12.0f rows/s %,10d kB pkey%n", "uuid v7", timeOrdered.rowsPerSecond(), timeOrdered.indexKb());
+
+        // Appending keeps leaf pages full; random keys split pages all over the index
+        assertThat(timeOrdered.indexKb()).isLessThan(random.indexKb());
+    }
+
+    private Result run(String table, Supplier<UUID> ids) throws SQLException {
+        try (Connection connection = connect()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE " + table + " (LIKE payments INCLUDING ALL)");
+            }
+
+            connection.setAutoCommit(false);
+            String sql = "INSERT INTO " + table
+                    + " (id, user_id, course_id, amount, method, status, payment_reference, created_at)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                for (int i = 1; i <= ROWS; i++) {
+                    insert.setObject(1, ids.get());
+                    insert.setObject(2, UUID.randomUUID());
+                    insert.setObject(3, UUID.randomUUID());
+                    insert.setDouble(4, 100);
+                    insert.setString(5, "CREDIT_CARD");
+                    insert.setString(6, "PAID");
+                    insert.setString(7, table + "-" + i);
+                    insert.setTimestamp(8, new Timestamp(System.currentTimeMillis()));
+                    insert.addBatch();
+                    if (i % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(
+                         "SELECT pg_relation_size('" + table + "_pkey') / 1024")) {
+                resultSet.next();
+                return new Result(ROWS / seconds, resultSet.getLong(1));
+            }
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                postgres.getUsername(), postgres.getPassword());
+    }
+
+    private record Result(double rowsPerSecond, long indexKb) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.paymentbe.repository;
+
+import com.example.paymentbe.enums.PaymentMethod;
+import com.example.paymentbe.enums.PaymentStatus;
+import com.example.paymentbe.enums.RefundStatus;
+import com.example.paymentbe.model.Payment;
+import com.example.paymentbe.model.Refund;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the list endpoints' DTO projections against the migrated schema: the rows carry exactly
+ * the response columns and nothing is loaded into the persistence context.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ResponseProjectionIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void paymentViews_CarryRefundReasonWithoutLoadingEntities() {
+        UUID userId = UUID.randomUUID();
+        Payment paid = persist(payment(userId, PaymentStatus.PAID), null);
+        Payment refunded = persist(payment(userId, PaymentStatus.REFUND_REQUESTED), "Duplicate purchase");
+
+        Map<UUID, PaymentView> views = paymentRepository.findViewsByUserId(userId).stream()
+                .collect(Collectors.toMap(PaymentView::id, view -> view));
+
+        assertEquals(2, views.size());
+        assertNull(views.get(paid.getId()).refundReason());
+        assertEquals("Duplicate purchase", views.get(refunded.getId()).refundReason());
+        assertEquals(PaymentMethod.CREDIT_CARD, views.get(paid.getId()).method());
+        assertEquals(0, managedEntities());
+    }
+
+    @Test
+    void paymentPage_IsOrderedNewestFirst() {
+        UUID userId = UUID.randomUUID();
+        Payment older = persist(payment(userId, PaymentStatus.PAID), null);
+        Payment newer = persist(payment(userId, PaymentStatus.PAID), null);
+
+        List<PaymentView> page = paymentRepository.findUserPage(userId, PageRequest.ofSize(10));
+
+        assertEquals(List.of(newer.getId(), older.getId()), page.stream().map(PaymentView::id).toList());
+        assertEquals(0, managedEntities());
+    }
+
+    @Test
+    void refundViews_CarryTheirPaymentsColumns() {
+        Payment payment = persist(payment(UUID.randomUUID(), PaymentStatus.REFUND_REQUESTED), "Wrong course");
+
+        List<RefundView> views = refundRepository.findStatusPage(RefundStatus.PENDING, PageRequest.ofSize(10));
+
+        RefundView view = views.stream().filter(row -> row.id().equals(payment.getId())).findFirst().orElseThrow();
+        assertEquals("Wrong course", view.reason());
+        assertEquals(payment.getUserId(), view.userId());
+        assertEquals(PaymentStatus.REFUND_REQUESTED, view.paymentStatus());
+        assertEquals(payment.getPaymentReference(), view.paymentReference());
+        assertEquals(0, managedEntities());
+    }
+
+    private Payment persist(Payment payment, String refundReason) {
+        if (refundReason != null) {
+            payment.addRefund(Refund.builder()
+                    .reason(refundReason)
+                    .status(RefundStatus.PENDING)
+                    .requestedAt(LocalDateTime.now())
+                    .build());
+        }
+        Payment saved = entityManager.persistFlushFind(payment);
+        entityManager.clear();
+        return saved;
+    }
+
+    private int managedEntities() {
+        return entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+    }
+
+    private static Payment payment(UUID userId, PaymentStatus status) {
+        return Payment.builder()
+                .userId(userId)
+                .courseId(UUID.randomUUID())
+                .amount(100.0)
+                .method(PaymentMethod.CREDIT_CARD)
+                .status(status)
+                .paymentReference("PAY-" + UUID.randomUUID())
+                .build();
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.config.ReplicaRoutingDataSource;
+import com.example.paymentbe.dto.PaymentRequest;
+import com.example.paymentbe.dto.PaymentResponse;
+import com.example.paymentbe.enums.PaymentMethod;
+import com.example.paymentbe.enums.PaymentStatus;
+import com.example.paymentbe.model.Payment;
+import com.example.paymentbe.repository.PaymentRepository;
+import com.example.paymentbe.service.outbox.OutboxService;
+import com.example.paymentbe.service.strategy.PaymentStrategy;
+import com.example.paymentbe.service.strategy.PaymentStrategyFactory;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    private static final String KEY = "client-key-1";
+
+    @Mock
+    private PaymentService paymentService;
+
+    private IdempotencyServiceImpl idempotencyService;
+    private PaymentRequest request;
+    private PaymentResponse response;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(paymentService, 100, 4);
+
+        request = new PaymentRequest();
+        request.setUserId(UUID.randomUUID());
+        request.setCourseId(UUID.randomUUID());
+        request.setAmount(100.0);
+        request.setMethod(PaymentMethod.CREDIT_CARD);
+        request.setCardNumber("4111111111111111");
+        request.setCardCvc("123");
+
+        response = PaymentResponse.builder()
+                .paymentId(UUID.randomUUID().toString())
+                .userId(request.getUserId())
+                .courseId(request.getCourseId())
+                .amount(100.0)
+                .paymentMethod(PaymentMethod.CREDIT_CARD.name())
+                .status(PaymentStatus.PAID)
+                .build();
+    }
+
+    @Test
+    void processPayment_FirstCall_ProcessesWithKey() {
+        when(paymentService.getPaymentByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+        when(paymentService.processPayment(request, KEY)).thenReturn(response);
+
+        PaymentResponse result = idempotencyService.processPayment(KEY, request);
+
+        assertSame(response, result);
+        verify(paymentService).processPayment(request, KEY);
+    }
+
+    @Test
+    void processPayment_Replay_ServedFromCacheWithoutTouchingService() {
+        when(paymentService.getPaymentByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+        when(paymentService.processPayment(request, KEY)).thenReturn(response);
+
+        idempotencyService.processPayment(KEY, request);
+        PaymentResponse replay = idempotencyService.processPayment(KEY, request);
+
+        assertSame(response, replay);
+        verify(paymentService, times(1)).processPayment(any(), anyString());
+        verify(paymentService, times(1)).getPaymentByIdempotencyKey(KEY);
+    }
+
+    @Test
+    void processPayment_KeyAlreadyStored_ReturnsStoredPayment() {
+        when(paymentService.getPaymentByIdempotencyKey(KEY)).thenReturn(Optional.of(response));
+
+        PaymentResponse result = idempotencyService.processPayment(KEY, request);
+
+        assertSame(response, result);
+        verify(paymentService, never()).processPayment(any(), anyString());
+    }
+
+    @Test
+    void processPayment_ConcurrentInsertOnOtherNode_ReturnsWinner() {
+        when(paymentService.getPaymentByIdempotencyKey(KEY))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(response));
+        when(paymentService.processPayment(request, KEY))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        PaymentResponse result = idempotencyService.processPayment(KEY, request);
+
+        assertSame(response, result);
+    }
+
+    @Test
+    void processPayment_KeyReusedForDifferentRequest_Throws() {
+        when(paymentService.getPaymentByIdempotencyKey(KEY)).thenReturn(Optional.of(response));
+        request.setAmount(250.0);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> idempotencyService.processPayment(KEY, request));
+
+        assertEquals("Idempotency-Key was already used for a different payment request", exception.getMessage());
+    }
+
+    @Test
+    void processPayment_BlankKey_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.processPayment(" ", request));
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void processPayment_FailedExecution_IsNotCached() {
+        when(paymentService.getPaymentByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+        when(paymentService.processPayment(request, KEY))
+                .thenThrow(new IllegalArgumentException("Invalid payment request"))
+                .thenReturn(response);
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.processPayment(KEY, request));
+        PaymentResponse retry = idempotencyService.processPayment(KEY, request);
+
+        assertSame(response, retry);
+    }
+
+    @Test
+    void processPayment_ConcurrentDuplicates_ExecuteOnce() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentService.getPaymentByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+        when(paymentService.processPayment(request, KEY)).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return response;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<PaymentResponse> first = executor.submit(() -> idempotencyService.processPayment(KEY, request));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<PaymentResponse> second = executor.submit(() -> idempotencyService.processPayment(KEY, request));
+            Future<PaymentResponse> third = executor.submit(() -> idempotencyService.processPayment(KEY, request));
+            release.countDown();
+
+            assertSame(response, first.get(5, TimeUnit.SECONDS));
+            assertSame(response, second.get(5, TimeUnit.SECONDS));
+            assertSame(response, third.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(paymentService, times(1)).processPayment(request, KEY);
+    }
+
+    // Each node has its own in-flight map, so only the unique index on the key keeps them apart
+    @Test
+    void processPayment_SameKeyOnTwoNodes_ChargesOnce() throws Exception {
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        PaymentStrategyFactory strategyFactory = mock(PaymentStrategyFactory.class);
+        PaymentStrategy strategy = mock(PaymentStrategy.class);
+        PaymentServiceImpl sharedDatabase = new PaymentServiceImpl(paymentRepository, strategyFactory, null,
+                new PaymentResponseCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry()),
+                mock(PaymentChangeNotifier.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(OutboxService.class), new ReadYourWrites(null, Duration.ofSeconds(3), Ticker.systemTicker()));
+
+        AtomicReference<Payment> row = new AtomicReference<>();
+        CountDownLatch bothLookedUp = new CountDownLatch(2);
+        List<Boolean> lookupsOnPrimary = new CopyOnWriteArrayList<>();
+        when(paymentRepository.findByIdempotencyKey(KEY)).thenAnswer(invocation -> {
+            lookupsOnPrimary.add(ReplicaRoutingDataSource.isPrimaryForced());
+            bothLookedUp.countDown();
+            bothLookedUp.await(5, TimeUnit.SECONDS);
+            return Optional.ofNullable(row.get());
+        });
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(UUID.randomUUID());
+            if (!row.compareAndSet(null, payment)) {
+                throw new DataIntegrityViolationException("duplicate key value violates \"idx_payments_idempotency_key\"");
+            }
+            return payment;
+        });
+        when(paymentRepository.updateStatusesIfAllowed(anyCollection(), any(), anyList(), any()))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<UUID>>getArgument(0)));
+        when(strategyFactory.getStrategy(PaymentMethod.CREDIT_CARD)).thenReturn(strategy);
+        when(strategy.process(request)).thenReturn(true);
+
+        IdempotencyServiceImpl nodeA = new IdempotencyServiceImpl(sharedDatabase, 100, 4);
+        IdempotencyServiceImpl nodeB = new IdempotencyServiceImpl(sharedDatabase, 100, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<PaymentResponse> onA = executor.submit(() -> nodeA.processPayment(KEY, request));
+            Future<PaymentResponse> onB = executor.submit(() -> nodeB.processPayment(KEY, request));
+
+            assertEquals(onA.get(5, TimeUnit.SECONDS).getPaymentId(), onB.get(5, TimeUnit.SECONDS).getPaymentId());
+            assertNotNull(row.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(strategy, times(1)).process(request);
+        verify(paymentRepository, times(2)).saveAndFlush(any(Payment.class));
+        // Both pre-checks and the loser's re-read after the conflict
+        assertEquals(List.of(true, true, true), lookupsOnPrimary);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.paymentbe.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeDecode_RoundTrips() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 5, 1, 10, 15, 30, 123_456_000);
+        UUID id = UUID.randomUUID();
+
+        KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(createdAt, id).encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(id, decoded.getId());
+    }
+
+    @Test
+    void encode_IsUrlSafe() {
+        String cursor = new KeysetCursor(LocalDateTime.now(), UUID.randomUUID()).encode();
+
+        assertTrue(cursor.matches("^[A-Za-z0-9_-]+$"));
+    }
+
+    @Test
+    void decode_Garbage_ThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("garbage"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("!!!"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two nodes sharing one Postgres: a write on node A must evict node B's cached copy, and only
+ * once the writing transaction has committed.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentChangeListenerIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final PaymentResponseCache nodeBCache =
+            new PaymentResponseCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+    private final AtomicInteger nodeBLoads = new AtomicInteger();
+
+    private PaymentChangeNotifier nodeANotifier;
+    private PaymentChangeListener nodeBListener;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        nodeANotifier = new PaymentChangeNotifier(
+                new PaymentResponseCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()),
+                new JdbcTemplate(dataSource), mock(PaymentEventHub.class), mock(ReadYourWrites.class));
+
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(postgres.getJdbcUrl());
+        properties.setUsername(postgres.getUsername());
+        properties.setPassword(postgres.getPassword());
+        PaymentChangeNotifier nodeBNotifier = new PaymentChangeNotifier(nodeBCache, new JdbcTemplate(dataSource),
+                mock(PaymentEventHub.class), mock(ReadYourWrites.class));
+        nodeBListener = new PaymentChangeListener(properties, nodeBCache, nodeBNotifier, mock(PaymentEventHub.class),
+                mock(ReadYourWrites.class), Duration.ofMillis(100));
+        nodeBListener.start();
+
+        for (int i = 0; i < 100 && !nodeBListener.isConnected(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(nodeBListener.isConnected());
+        assertFalse(nodeBCache.isSuspended());
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeBListener.stop();
+    }
+
+    @Test
+    void committedChange_EvictsOtherNodesEntry() throws InterruptedException {
+        UUID paymentId = UUID.randomUUID();
+        load(paymentId);
+
+        transactionTemplate.executeWithoutResult(status -> nodeANotifier.paymentChanged(paymentId));
+
+        awaitEviction(paymentId);
+        assertEquals(2, nodeBLoads.get());
+    }
+
+    @Test
+    void rolledBackChange_IsNotDelivered() throws InterruptedException {
+        UUID paymentId = UUID.randomUUID();
+        load(paymentId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            nodeANotifier.paymentChanged(paymentId);
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(1_000);
+        load(paymentId);
+        assertEquals(1, nodeBLoads.get());
+    }
+
+    private void load(UUID paymentId) {
+        nodeBCache.get(paymentId, id -> {
+            nodeBLoads.incrementAndGet();
+            return PaymentResponse.builder().paymentId(id.toString()).build();
+        });
+    }
+
+    private void awaitEviction(UUID paymentId) throws InterruptedException {
+        for (int i = 0; i < 100 && nodeBLoads.get() < 2; i++) {
+            load(paymentId);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.paymentbe.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentChangeListenerTest {
+
+    @Mock
+    private PaymentResponseCache paymentResponseCache;
+
+    @Mock
+    private PaymentChangeNotifier paymentChangeNotifier;
+
+    @Mock
+    private PaymentEventHub paymentEventHub;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    private PaymentChangeListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new PaymentChangeListener(new DataSourceProperties(), paymentResponseCache,
+                paymentChangeNotifier, paymentEventHub, readYourWrites, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void handle_OtherNode_EvictsPaymentAndNotifiesSubscribers() {
+        UUID paymentId = UUID.randomUUID();
+        when(paymentChangeNotifier.getNodeId()).thenReturn("node-a");
+
+        listener.handle("node-b:" + paymentId);
+
+        verify(readYourWrites).recordWrite(paymentId);
+        verify(paymentResponseCache).invalidate(paymentId);
+        verify(paymentEventHub).paymentChanged(paymentId);
+    }
+
+    @Test
+    void handle_SeveralIds_SkipsOnlyMalformedOnes() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(paymentChangeNotifier.getNodeId()).thenReturn("node-a");
+
+        listener.handle("node-b:" + first + ",not-a-uuid," + second);
+
+        verify(paymentResponseCache).invalidate(first);
+        verify(paymentResponseCache).invalidate(second);
+        verify(paymentEventHub).paymentChanged(first);
+        verify(paymentEventHub).paymentChanged(second);
+    }
+
+    @Test
+    void handle_OwnNotification_IsSkipped() {
+        when(paymentChangeNotifier.getNodeId()).thenReturn("node-a");
+
+        listener.handle("node-a:" + UUID.randomUUID());
+
+        verify(paymentResponseCache, never()).invalidate(any());
+    }
+
+    @Test
+    void handle_MalformedPayload_IsIgnored() {
+        listener.handle("not-a-notification");
+        listener.handle(null);
+
+        verify(paymentResponseCache, never()).invalidate(any());
+    }
+
+    @Test
+    void handle_InvalidPaymentId_IsIgnored() {
+        when(paymentChangeNotifier.getNodeId()).thenReturn("node-a");
+
+        listener.handle("node-b:not-a-uuid");
+
+        verify(paymentResponseCache, never()).invalidate(any());
+        verify(paymentEventHub, never()).paymentChanged(any());
+    }
+}
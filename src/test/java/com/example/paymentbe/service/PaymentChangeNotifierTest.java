@@ -0,0 +1,83 @@
+package com.example.paymentbe.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentChangeNotifierTest {
+
+    @Mock
+    private PaymentResponseCache paymentResponseCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PaymentEventHub paymentEventHub;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @InjectMocks
+    private PaymentChangeNotifier paymentChangeNotifier;
+
+    @Test
+    void paymentChanged_EvictsLocallyAndNotifiesOtherNodes() {
+        UUID paymentId = UUID.randomUUID();
+
+        paymentChangeNotifier.paymentChanged(paymentId);
+
+        verify(readYourWrites).recordWrite(paymentId);
+        verify(paymentResponseCache).invalidate(paymentId);
+        verify(jdbcTemplate).queryForList("SELECT pg_notify(?, ?)", PaymentChangeNotifier.CHANNEL,
+                paymentChangeNotifier.getNodeId() + ":" + paymentId);
+        verify(paymentEventHub).paymentChanged(paymentId);
+    }
+
+    @Test
+    void paymentChanged_InTransaction_PublishesEventAfterCommit() {
+        UUID paymentId = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            paymentChangeNotifier.paymentChanged(paymentId);
+            verify(paymentEventHub, never()).paymentChanged(paymentId);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(paymentEventHub).paymentChanged(paymentId);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void paymentsChanged_SendsIdsInChunks() {
+        List<UUID> paymentIds = Stream.generate(UUID::randomUUID)
+                .limit(PaymentChangeNotifier.IDS_PER_NOTIFICATION + 1)
+                .toList();
+
+        paymentChangeNotifier.paymentsChanged(paymentIds);
+
+        verify(paymentResponseCache, times(paymentIds.size())).invalidate(any());
+        verify(jdbcTemplate, times(2)).queryForList(eq("SELECT pg_notify(?, ?)"), eq(PaymentChangeNotifier.CHANNEL),
+                any(String.class));
+        verify(jdbcTemplate).queryForList("SELECT pg_notify(?, ?)", PaymentChangeNotifier.CHANNEL,
+                paymentChangeNotifier.getNodeId() + ":" + paymentIds.get(paymentIds.size() - 1));
+        verify(paymentEventHub, times(paymentIds.size())).paymentChanged(any());
+    }
+}
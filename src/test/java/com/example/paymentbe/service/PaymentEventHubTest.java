@@ -0,0 +1,168 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PaymentResponse;
+import com.example.paymentbe.enums.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventHubTest {
+
+    @Mock
+    private ObjectProvider<PaymentService> paymentServiceProvider;
+
+    @Mock
+    private PaymentService paymentService;
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private PaymentEventHub hub;
+    private UUID paymentId;
+    private LocalDateTime createdAt;
+
+    @BeforeEach
+    void setUp() {
+        // Sends run inline so the assertions need no waiting
+        hub = new PaymentEventHub(paymentServiceProvider, Duration.ofMinutes(1), Runnable::run,
+                new SimpleMeterRegistry()) {
+            @Override
+            SseEmitter createEmitter(long timeout) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        paymentId = UUID.randomUUID();
+        createdAt = LocalDateTime.now();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.destroy();
+    }
+
+    @Test
+    void subscribe_SendsCurrentState() {
+        hub.subscribe(payment(PaymentStatus.PENDING, createdAt));
+
+        assertEquals(1, hub.subscriberCount());
+        assertEquals(List.of(PaymentStatus.PENDING), emitters.get(0).statuses());
+    }
+
+    @Test
+    void paymentChanged_NewStatus_IsPushedToEverySubscriber() {
+        hub.subscribe(payment(PaymentStatus.PENDING, createdAt));
+        hub.subscribe(payment(PaymentStatus.PENDING, createdAt));
+        when(paymentServiceProvider.getObject()).thenReturn(paymentService);
+        when(paymentService.getFreshPayment(paymentId.toString()))
+                .thenReturn(payment(PaymentStatus.PAID, createdAt.plusSeconds(1)));
+
+        hub.paymentChanged(paymentId);
+
+        for (RecordingEmitter emitter : emitters) {
+            assertEquals(List.of(PaymentStatus.PENDING, PaymentStatus.PAID), emitter.statuses());
+        }
+        verify(paymentService).getPayment(paymentId.toString());
+    }
+
+    @Test
+    void paymentChanged_SameStatus_IsNotResent() {
+        hub.subscribe(payment(PaymentStatus.PENDING, createdAt));
+        when(paymentServiceProvider.getObject()).thenReturn(paymentService);
+        when(paymentService.getFreshPayment(paymentId.toString())).thenReturn(payment(PaymentStatus.PENDING, createdAt));
+
+        hub.paymentChanged(paymentId);
+
+        assertEquals(List.of(PaymentStatus.PENDING), emitters.get(0).statuses());
+    }
+
+    @Test
+    void paymentChanged_OlderSnapshot_IsNotSent() {
+        hub.subscribe(payment(PaymentStatus.REFUND_REQUESTED, createdAt));
+        when(paymentServiceProvider.getObject()).thenReturn(paymentService);
+        when(paymentService.getFreshPayment(paymentId.toString()))
+                .thenReturn(payment(PaymentStatus.PAID, createdAt.minusSeconds(1)));
+
+        hub.paymentChanged(paymentId);
+
+        assertEquals(List.of(PaymentStatus.REFUND_REQUESTED), emitters.get(0).statuses());
+    }
+
+    @Test
+    void paymentChanged_NoSubscribers_DoesNotLoadPayment() {
+        hub.paymentChanged(paymentId);
+
+        verify(paymentServiceProvider, never()).getObject();
+    }
+
+    @Test
+    void paymentChanged_SendFails_DropsSubscriber() {
+        hub.subscribe(payment(PaymentStatus.PENDING, createdAt));
+        emitters.get(0).failing = true;
+        when(paymentServiceProvider.getObject()).thenReturn(paymentService);
+        when(paymentService.getFreshPayment(paymentId.toString()))
+                .thenReturn(payment(PaymentStatus.PAID, createdAt.plusSeconds(1)));
+
+        hub.paymentChanged(paymentId);
+
+        assertEquals(0, hub.subscriberCount());
+    }
+
+    @Test
+    void sendHeartbeats_SendsCommentToEverySubscriber() {
+        hub.subscribe(payment(PaymentStatus.PENDING, createdAt));
+
+        hub.sendHeartbeats();
+
+        assertEquals(2, emitters.get(0).sent.size());
+        assertTrue(emitters.get(0).sent.get(1).toString().contains(":keepalive"));
+    }
+
+    private PaymentResponse payment(PaymentStatus status, LocalDateTime updatedAt) {
+        return PaymentResponse.builder()
+                .paymentId(paymentId.toString())
+                .status(status)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<List<Object>> sent = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder.build().stream().map(ResponseBodyEmitter.DataWithMediaType::getData).toList());
+        }
+
+        List<PaymentStatus> statuses() {
+            return sent.stream()
+                    .flatMap(List::stream)
+                    .filter(PaymentResponse.class::isInstance)
+                    .map(data -> ((PaymentResponse) data).getStatus())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.PaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong ticker = new AtomicLong();
+    private final PaymentResponseCache cache =
+            new PaymentResponseCache(2, Duration.ofSeconds(30), meterRegistry, ticker::get);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_LoadsOnceThenServesFromCache() {
+        UUID id = UUID.randomUUID();
+
+        PaymentResponse first = cache.get(id, this::load);
+        PaymentResponse second = cache.get(id, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ExpiredEntry_IsReloaded() {
+        UUID id = UUID.randomUUID();
+        cache.get(id, this::load);
+
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        cache.get(id, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_LoaderFailure_IsNotCached() {
+        UUID id = UUID.randomUUID();
+
+        assertThrows(RuntimeException.class, () -> cache.get(id, missing -> {
+            throw new RuntimeException("Payment not found with ID: " + missing);
+        }));
+        cache.get(id, this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void size_IsBounded() {
+        for (int i = 0; i < 10; i++) {
+            cache.get(UUID.randomUUID(), this::load);
+        }
+
+        assertTrue(cache.size() <= 2);
+    }
+
+    @Test
+    void invalidate_OutsideTransaction_EvictsImmediately() {
+        UUID id = UUID.randomUUID();
+        cache.get(id, this::load);
+
+        cache.invalidate(id);
+        cache.get(id, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_InsideTransaction_EvictsAgainAfterCompletion() {
+        UUID id = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate(id);
+        // A concurrent reader caches the row as it was before the commit
+        cache.get(id, this::load);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        cache.get(id, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void metrics_AreRegisteredWithTheMeterRegistry() {
+        UUID id = UUID.randomUUID();
+        cache.get(id, this::load);
+        cache.get(id, this::load);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", PaymentResponseCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", PaymentResponseCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", PaymentResponseCache.CACHE_NAME).meter());
+    }
+
+    private PaymentResponse load(UUID id) {
+        loads.incrementAndGet();
+        return PaymentResponse.builder().paymentId(id.toString()).build();
+    }
+}
@@ -1,32 +1,67 @@
 package com.example.paymentbe.service;
 
+import com.example.paymentbe.config.ReplicaRoutingDataSource;
+import com.example.paymentbe.dto.BatchPaymentResponse;
+import com.example.paymentbe.dto.BatchPaymentResult;
+import com.example.paymentbe.dto.BulkUpdateResponse;
+import com.example.paymentbe.dto.BulkUpdateResult;
+import com.example.paymentbe.dto.PageResponse;
 import com.example.paymentbe.dto.PaymentRequest;
 import com.example.paymentbe.dto.PaymentResponse;
 import com.example.paymentbe.dto.RefundRequest;
+import com.example.paymentbe.enums.BulkUpdateOutcome;
+import com.example.paymentbe.enums.OutboxEventType;
 import com.example.paymentbe.enums.PaymentMethod;
 import com.example.paymentbe.enums.PaymentStatus;
 import com.example.paymentbe.model.Payment;
 import com.example.paymentbe.model.Refund;
 import com.example.paymentbe.repository.PaymentRepository;
+import com.example.paymentbe.repository.PaymentStatusView;
+import com.example.paymentbe.repository.PaymentView;
 import com.example.paymentbe.repository.RefundRepository;
+import com.example.paymentbe.service.outbox.OutboxService;
+import com.example.paymentbe.service.strategy.GatewayExecutor;
+import com.example.paymentbe.service.strategy.GatewayUnavailableException;
 import com.example.paymentbe.service.strategy.PaymentStrategy;
 import com.example.paymentbe.service.strategy.PaymentStrategyFactory;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +79,25 @@ public class PaymentServiceImplTest {
     @Mock
     private PaymentStrategy paymentStrategy;
 
+    @Mock
+    private GatewayExecutor gatewayExecutor;
+
+    @Spy
+    private PaymentResponseCache paymentResponseCache =
+            new PaymentResponseCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Mock
+    private PaymentChangeNotifier paymentChangeNotifier;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(null, Duration.ofSeconds(3), Ticker.systemTicker());
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -96,6 +150,25 @@ public class PaymentServiceImplTest {
         assertEquals(PaymentStatus.PAID, response.getStatus());
         verify(paymentRepository).save(any(Payment.class));
         verify(paymentStrategy).process(any(PaymentRequest.class));
+        verify(outboxService).record(OutboxEventType.PAYMENT_CREATED, testPaymentId, response);
+        verify(readYourWrites).recordWrite(testPaymentId);
+        verify(readYourWrites).recordWrite(testUserId);
+    }
+
+    @Test
+    void processPayment_OutboxWriteFails_PropagatesSoThePaymentRollsBack() {
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class))).thenReturn(true);
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(testPaymentId);
+            return payment;
+        });
+        doThrow(new IllegalStateException("outbox down")).when(outboxService)
+                .record(eq(OutboxEventType.PAYMENT_CREATED), eq(testPaymentId), any());
+
+        assertThrows(IllegalStateException.class, () -> paymentService.processPayment(testPaymentRequest));
+        verify(transactionTemplate).execute(any());
     }
 
     @Test
@@ -115,6 +188,238 @@ public class PaymentServiceImplTest {
         verify(paymentStrategy).process(any(PaymentRequest.class));
     }
 
+    @Test
+    void processPayment_GatewayCallRunsBeforeTheInsert() {
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class))).thenReturn(true);
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(testPaymentId);
+            return payment;
+        });
+
+        paymentService.processPayment(testPaymentRequest);
+
+        InOrder inOrder = inOrder(paymentStrategy, paymentRepository);
+        inOrder.verify(paymentStrategy).process(testPaymentRequest);
+        inOrder.verify(paymentRepository).save(any(Payment.class));
+    }
+
+    @Test
+    void paymentCreation_IsNotWrappedInAServiceTransaction() throws NoSuchMethodException {
+        // A surrounding transaction would pin a pooled connection for the whole gateway call
+        assertNull(PaymentServiceImpl.class.getAnnotation(Transactional.class));
+        assertNull(PaymentServiceImpl.class.getMethod("processPayment", PaymentRequest.class)
+                .getAnnotation(Transactional.class));
+        assertNull(PaymentServiceImpl.class.getMethod("processPayment", PaymentRequest.class, String.class)
+                .getAnnotation(Transactional.class));
+        assertNull(PaymentServiceImpl.class.getMethod("processPayments", List.class)
+                .getAnnotation(Transactional.class));
+    }
+
+    @Test
+    void processPaymentAsync_PersistsOnceGatewayAnswers() {
+        when(strategyFactory.getAsyncStrategy(PaymentMethod.CREDIT_CARD)).thenReturn(paymentStrategy);
+        when(paymentStrategy.processAsync(testPaymentRequest, gatewayExecutor))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(testPaymentId);
+            return payment;
+        });
+
+        PaymentResponse response = paymentService.processPaymentAsync(testPaymentRequest).join();
+
+        assertEquals(PaymentStatus.PAID, response.getStatus());
+        verify(paymentStrategy, never()).process(any(PaymentRequest.class));
+    }
+
+    @Test
+    void processPaymentAsync_GatewayUnavailable_DoesNotPersist() {
+        when(strategyFactory.getAsyncStrategy(PaymentMethod.CREDIT_CARD)).thenReturn(paymentStrategy);
+        when(paymentStrategy.processAsync(testPaymentRequest, gatewayExecutor))
+                .thenReturn(CompletableFuture.failedFuture(new GatewayUnavailableException("circuit is open")));
+
+        CompletableFuture<PaymentResponse> response = paymentService.processPaymentAsync(testPaymentRequest);
+
+        CompletionException exception = assertThrows(CompletionException.class, response::join);
+        assertInstanceOf(GatewayUnavailableException.class, exception.getCause());
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    void processPaymentAsync_InvalidRequest_ThrowsBeforeGatewayCall() {
+        testPaymentRequest.setAmount(0);
+
+        assertThrows(IllegalArgumentException.class, () -> paymentService.processPaymentAsync(testPaymentRequest));
+        verify(strategyFactory, never()).getAsyncStrategy(any(PaymentMethod.class));
+    }
+
+    @Test
+    void processPayments_PersistsValidItemsInOneSaveAll() {
+        PaymentRequest invalid = new PaymentRequest();
+        invalid.setUserId(testUserId);
+        invalid.setCourseId(testCourseId);
+        invalid.setAmount(0);
+        invalid.setMethod(PaymentMethod.CREDIT_CARD);
+
+        runGatewayCallsInline();
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class))).thenReturn(true, false);
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId(UUID.randomUUID()));
+            return payments;
+        });
+
+        applyStatusUpdates();
+
+        BatchPaymentResponse response = paymentService.processPayments(
+                Arrays.asList(testPaymentRequest, invalid, testPaymentRequest));
+
+        assertEquals(3, response.getTotal());
+        assertEquals(2, response.getAccepted());
+        assertEquals(1, response.getRejected());
+
+        BatchPaymentResult first = response.getResults().get(0);
+        assertTrue(first.isAccepted());
+        assertEquals(PaymentStatus.PAID, first.getPayment().getStatus());
+
+        BatchPaymentResult second = response.getResults().get(1);
+        assertEquals(1, second.getIndex());
+        assertFalse(second.isAccepted());
+        assertNull(second.getPayment());
+        assertEquals("Invalid payment request", second.getError());
+
+        BatchPaymentResult third = response.getResults().get(2);
+        assertEquals(2, third.getIndex());
+        assertEquals(PaymentStatus.FAILED, third.getPayment().getStatus());
+
+        verify(paymentRepository).saveAll(argThat(payments -> ((List<Payment>) payments).size() == 2));
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(outboxService, times(2)).record(eq(OutboxEventType.PAYMENT_CREATED), any(UUID.class), any());
+        verify(outboxService, times(2)).record(eq(OutboxEventType.PAYMENT_STATUS_CHANGED), any(UUID.class), any());
+    }
+
+    @Test
+    void processPayments_InsertsPendingRowsBeforeCharging() {
+        runGatewayCallsInline();
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class))).thenReturn(true);
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> assertEquals(PaymentStatus.PENDING, payment.getStatus()));
+            payments.forEach(payment -> payment.setId(UUID.randomUUID()));
+            return payments;
+        });
+        applyStatusUpdates();
+
+        paymentService.processPayments(List.of(testPaymentRequest));
+
+        InOrder inOrder = inOrder(paymentRepository, paymentStrategy);
+        inOrder.verify(paymentRepository).saveAll(anyList());
+        inOrder.verify(paymentStrategy).process(testPaymentRequest);
+        inOrder.verify(paymentRepository).updateStatusesIfAllowed(anyCollection(), eq("PAID"),
+                eq(List.of("PENDING")), any(LocalDateTime.class));
+    }
+
+    @Test
+    void processPayments_InsertFails_ChargesNothing() {
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> paymentService.processPayments(List.of(testPaymentRequest)));
+
+        verifyNoInteractions(paymentStrategy, gatewayExecutor);
+    }
+
+    @Test
+    void processPayments_OutcomeUpdateFails_LeavesPaymentsPending() {
+        runGatewayCallsInline();
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class))).thenReturn(true);
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId(UUID.randomUUID()));
+            return payments;
+        });
+        when(paymentRepository.updateStatusesIfAllowed(anyCollection(), any(), anyList(), any()))
+                .thenThrow(new CannotAcquireLockException("connection lost"));
+
+        BatchPaymentResponse response = paymentService.processPayments(List.of(testPaymentRequest));
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(PaymentStatus.PENDING, response.getResults().get(0).getPayment().getStatus());
+        verify(outboxService, never()).record(eq(OutboxEventType.PAYMENT_STATUS_CHANGED), any(), any());
+        verifyNoInteractions(paymentChangeNotifier);
+    }
+
+    @Test
+    void processPayments_StrategyErrorOnlyRejectsThatItem() {
+        runGatewayCallsInline();
+        when(strategyFactory.getStrategy(any(PaymentMethod.class)))
+                .thenThrow(new IllegalArgumentException("Unsupported payment method"))
+                .thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class))).thenReturn(true);
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId(UUID.randomUUID()));
+            return payments;
+        });
+
+        applyStatusUpdates();
+
+        BatchPaymentResponse response = paymentService.processPayments(
+                List.of(testPaymentRequest, testPaymentRequest));
+
+        assertFalse(response.getResults().get(0).isAccepted());
+        assertEquals("Unsupported payment method", response.getResults().get(0).getError());
+        assertTrue(response.getResults().get(1).isAccepted());
+    }
+
+    @Test
+    void processPayments_GatewayError_MarksThatItemFailed() {
+        runGatewayCallsInline();
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class)))
+                .thenReturn(true)
+                .thenThrow(new IllegalStateException("Gateway timed out"));
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Payment> payments = invocation.getArgument(0);
+            payments.forEach(payment -> payment.setId(UUID.randomUUID()));
+            return payments;
+        });
+
+        applyStatusUpdates();
+
+        BatchPaymentResponse response = paymentService.processPayments(
+                List.of(testPaymentRequest, testPaymentRequest));
+
+        assertEquals(PaymentStatus.PAID, response.getResults().get(0).getPayment().getStatus());
+        assertNull(response.getResults().get(0).getError());
+        assertEquals(PaymentStatus.FAILED, response.getResults().get(1).getPayment().getStatus());
+        assertEquals("Gateway timed out", response.getResults().get(1).getError());
+        assertEquals(2, response.getAccepted());
+    }
+
+    @Test
+    void processPayments_EmptyBatch_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> paymentService.processPayments(List.of()));
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void processPayments_OversizedBatch_Throws() {
+        List<PaymentRequest> requests = new ArrayList<>();
+        for (int i = 0; i <= PaymentServiceImpl.MAX_BATCH_SIZE; i++) {
+            requests.add(testPaymentRequest);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> paymentService.processPayments(requests));
+        verify(strategyFactory, never()).getStrategy(any(PaymentMethod.class));
+    }
+
     @Test
     void processPayment_BankTransfer_Success() {
         testPaymentRequest.setMethod(PaymentMethod.BANK_TRANSFER);
@@ -135,6 +440,93 @@ public class PaymentServiceImplTest {
         verify(paymentStrategy).process(any(PaymentRequest.class));
     }
 
+    @Test
+    void processPayment_WithIdempotencyKey_ReservesPendingRowBeforeCharging() {
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class))).thenReturn(true);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            assertEquals(PaymentStatus.PENDING, payment.getStatus());
+            payment.setId(testPaymentId);
+            return payment;
+        });
+        applyStatusUpdates();
+
+        PaymentResponse response = paymentService.processPayment(testPaymentRequest, "client-key-1");
+
+        assertEquals(PaymentStatus.PAID, response.getStatus());
+        ArgumentCaptor<Payment> paymentCaptor = ArgumentCaptor.forClass(Payment.class);
+        InOrder inOrder = inOrder(paymentRepository, paymentStrategy);
+        inOrder.verify(paymentRepository).saveAndFlush(paymentCaptor.capture());
+        inOrder.verify(paymentStrategy).process(testPaymentRequest);
+        inOrder.verify(paymentRepository).updateStatusesIfAllowed(eq(List.of(testPaymentId)), eq("PAID"),
+                eq(List.of("PENDING")), any(LocalDateTime.class));
+        assertEquals("client-key-1", paymentCaptor.getValue().getIdempotencyKey());
+        verify(paymentRepository, never()).save(any(Payment.class));
+    }
+
+    @Test
+    void processPayment_WithIdempotencyKey_DuplicateKeyChargesNothing() {
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentRepository.saveAndFlush(any(Payment.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> paymentService.processPayment(testPaymentRequest, "client-key-1"));
+
+        verifyNoInteractions(paymentStrategy);
+    }
+
+    @Test
+    void processPayment_WithIdempotencyKey_GatewayError_MarksReservationFailed() {
+        when(strategyFactory.getStrategy(any(PaymentMethod.class))).thenReturn(paymentStrategy);
+        when(paymentStrategy.process(any(PaymentRequest.class)))
+                .thenThrow(new GatewayUnavailableException("gateway down"));
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(testPaymentId);
+            return payment;
+        });
+        applyStatusUpdates();
+
+        assertThrows(GatewayUnavailableException.class,
+                () -> paymentService.processPayment(testPaymentRequest, "client-key-1"));
+
+        verify(paymentRepository).updateStatusesIfAllowed(eq(List.of(testPaymentId)), eq("FAILED"),
+                eq(List.of("PENDING")), any(LocalDateTime.class));
+    }
+
+    @Test
+    void getPaymentByIdempotencyKey_Found() {
+        when(paymentRepository.findByIdempotencyKey("client-key-1")).thenReturn(Optional.of(testPayment));
+
+        Optional<PaymentResponse> response = paymentService.getPaymentByIdempotencyKey("client-key-1");
+
+        assertTrue(response.isPresent());
+        assertEquals(testPaymentId.toString(), response.get().getPaymentId());
+    }
+
+    @Test
+    void getPaymentByIdempotencyKey_ReadsFromPrimary() {
+        List<Boolean> routedToPrimary = new ArrayList<>();
+        when(paymentRepository.findByIdempotencyKey("client-key-1")).thenAnswer(invocation -> {
+            routedToPrimary.add(ReplicaRoutingDataSource.isPrimaryForced());
+            return Optional.of(testPayment);
+        });
+
+        paymentService.getPaymentByIdempotencyKey("client-key-1");
+
+        assertEquals(List.of(true), routedToPrimary);
+        assertFalse(ReplicaRoutingDataSource.isPrimaryForced());
+    }
+
+    @Test
+    void getPaymentByIdempotencyKey_NotFound() {
+        when(paymentRepository.findByIdempotencyKey("client-key-1")).thenReturn(Optional.empty());
+
+        assertTrue(paymentService.getPaymentByIdempotencyKey("client-key-1").isEmpty());
+    }
+
     @Test
     void processPayment_InvalidRequest_NullUserId() {
         testPaymentRequest.setUserId(null);
@@ -167,38 +559,148 @@ public class PaymentServiceImplTest {
 
     @Test
     void updatePaymentStatus_Success() {
-        when(paymentRepository.findById(testPaymentId)).thenReturn(Optional.of(testPayment));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
+        testPayment.setStatus(PaymentStatus.PENDING);
+        when(paymentRepository.updateStatusIfAllowed(eq(testPaymentId), eq("PAID"),
+                eq(List.of("PENDING")), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    testPayment.setStatus(PaymentStatus.PAID);
+                    return Optional.of(testPayment);
+                });
 
-        PaymentResponse response = paymentService.updatePaymentStatus(testPaymentId.toString(), "PAID");
+        PaymentResponse response = paymentService.updatePaymentStatus(testPaymentId.toString(), "paid");
 
         assertEquals(PaymentStatus.PAID, response.getStatus());
-        verify(paymentRepository).findById(testPaymentId);
-        verify(paymentRepository).save(any(Payment.class));
+        verify(paymentRepository, never()).findById(any());
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentRepository, never()).findStatusById(any());
+        verify(paymentChangeNotifier).paymentChanged(testPaymentId);
+        verify(outboxService).record(OutboxEventType.PAYMENT_STATUS_CHANGED, testPaymentId, response);
     }
 
     @Test
     void updatePaymentStatus_PaymentNotFound() {
-        when(paymentRepository.findById(testPaymentId)).thenReturn(Optional.empty());
+        when(paymentRepository.updateStatusIfAllowed(eq(testPaymentId), eq("PAID"), anyList(), any()))
+                .thenReturn(Optional.empty());
+        when(paymentRepository.findStatusById(testPaymentId)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> paymentService.updatePaymentStatus(testPaymentId.toString(), "PAID"));
 
         assertEquals("Payment not found with ID: " + testPaymentId, exception.getMessage());
-        verify(paymentRepository).findById(testPaymentId);
-        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentChangeNotifier, never()).paymentChanged(any());
+        verify(outboxService, never()).record(any(), any(), any());
     }
 
     @Test
-    void updatePaymentStatus_InvalidStatus() {
+    void updatePaymentStatus_TransitionNotAllowed() {
+        when(paymentRepository.updateStatusIfAllowed(eq(testPaymentId), eq("PAID"), anyList(), any()))
+                .thenReturn(Optional.empty());
+        when(paymentRepository.findStatusById(testPaymentId)).thenReturn(Optional.of(PaymentStatus.REFUNDED));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> paymentService.updatePaymentStatus(testPaymentId.toString(), "PAID"));
+
+        assertEquals("Cannot change payment status from REFUNDED to PAID", exception.getMessage());
+        verify(paymentChangeNotifier, never()).paymentChanged(any());
+    }
+
+    @Test
+    void updatePaymentStatus_SameStatus_IsNoOp() {
+        testPayment.setStatus(PaymentStatus.PAID);
+        when(paymentRepository.updateStatusIfAllowed(eq(testPaymentId), eq("PAID"), eq(List.of("PENDING")), any()))
+                .thenReturn(Optional.empty());
+        when(paymentRepository.findStatusById(testPaymentId)).thenReturn(Optional.of(PaymentStatus.PAID));
         when(paymentRepository.findById(testPaymentId)).thenReturn(Optional.of(testPayment));
 
+        PaymentResponse response = paymentService.updatePaymentStatus(testPaymentId.toString(), "PAID");
+
+        assertEquals(PaymentStatus.PAID, response.getStatus());
+        verifyNoInteractions(outboxService, paymentChangeNotifier);
+    }
+
+    @Test
+    void updatePaymentStatus_InvalidStatus() {
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> paymentService.updatePaymentStatus(testPaymentId.toString(), "INVALID_STATUS"));
 
         assertEquals("Invalid payment status: INVALID_STATUS", exception.getMessage());
-        verify(paymentRepository).findById(testPaymentId);
-        verify(paymentRepository, never()).save(any(Payment.class));
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void updatePaymentStatus_RefundStatus_RejectedBeforeTouchingThePayment() {
+        for (String status : List.of("REFUND_REQUESTED", "REFUNDED", "PENDING")) {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> paymentService.updatePaymentStatus(testPaymentId.toString(), status));
+
+            assertEquals("Payments can only be set to PAID or FAILED", exception.getMessage());
+        }
+        verifyNoInteractions(paymentRepository, outboxService, paymentChangeNotifier);
+    }
+
+    @Test
+    void updatePaymentStatuses_ReportsOutcomePerId() {
+        UUID refundedId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        when(paymentRepository.updateStatusesIfAllowed(anyCollection(), eq("PAID"),
+                eq(List.of("PENDING")), any(LocalDateTime.class)))
+                .thenReturn(List.of(testPaymentId));
+        when(paymentRepository.findStatusesByIdIn(Set.of(refundedId, missingId)))
+                .thenReturn(List.of(statusView(refundedId, PaymentStatus.REFUNDED)));
+        when(paymentRepository.findAllWithRefundByIdIn(List.of(testPaymentId))).thenReturn(List.of(testPayment));
+
+        BulkUpdateResponse response = paymentService.updatePaymentStatuses(List.of(
+                testPaymentId.toString(), refundedId.toString(), missingId.toString(), "not-a-uuid",
+                testPaymentId.toString().toUpperCase()), "paid");
+
+        assertEquals(5, response.getTotal());
+        assertEquals(1, response.getUpdated());
+        assertEquals(3, response.getFailed());
+        assertEquals(List.of(BulkUpdateOutcome.UPDATED, BulkUpdateOutcome.INVALID_TRANSITION,
+                        BulkUpdateOutcome.NOT_FOUND, BulkUpdateOutcome.INVALID_ID, BulkUpdateOutcome.DUPLICATE_ID),
+                response.getResults().stream().map(BulkUpdateResult::getOutcome).toList());
+        assertEquals("REFUNDED", response.getResults().get(1).getStatus());
+        assertEquals(testPaymentId.toString().toUpperCase(), response.getResults().get(4).getId());
+        verify(outboxService).record(eq(OutboxEventType.PAYMENT_STATUS_CHANGED), eq(testPaymentId),
+                any(PaymentResponse.class));
+        verify(paymentChangeNotifier).paymentsChanged(List.of(testPaymentId));
+        verify(paymentRepository, never()).findById(any());
+    }
+
+    @Test
+    void updatePaymentStatuses_NothingUpdated_SkipsEventsAndNotification() {
+        when(paymentRepository.updateStatusesIfAllowed(anyCollection(), eq("PAID"), anyList(), any()))
+                .thenReturn(List.of());
+        when(paymentRepository.findStatusesByIdIn(Set.of(testPaymentId))).thenReturn(List.of());
+
+        BulkUpdateResponse response = paymentService.updatePaymentStatuses(List.of(testPaymentId.toString()), "PAID");
+
+        assertEquals(BulkUpdateOutcome.NOT_FOUND, response.getResults().get(0).getOutcome());
+        verify(paymentRepository, never()).findAllWithRefundByIdIn(any());
+        verifyNoInteractions(outboxService, paymentChangeNotifier);
+    }
+
+    @Test
+    void updatePaymentStatuses_AlreadyInTargetStatus_ReportedUnchanged() {
+        when(paymentRepository.updateStatusesIfAllowed(anyCollection(), eq("FAILED"), anyList(), any()))
+                .thenReturn(List.of());
+        when(paymentRepository.findStatusesByIdIn(Set.of(testPaymentId)))
+                .thenReturn(List.of(statusView(testPaymentId, PaymentStatus.FAILED)));
+
+        BulkUpdateResponse response = paymentService.updatePaymentStatuses(List.of(testPaymentId.toString()), "FAILED");
+
+        assertEquals(0, response.getUpdated());
+        assertEquals(0, response.getFailed());
+        assertEquals(BulkUpdateOutcome.UNCHANGED, response.getResults().get(0).getOutcome());
+        verifyNoInteractions(outboxService, paymentChangeNotifier);
+    }
+
+    @Test
+    void updatePaymentStatuses_TooManyIds_Throws() {
+        List<String> ids = Stream.generate(() -> UUID.randomUUID().toString()).limit(1001).toList();
+
+        assertThrows(IllegalArgumentException.class, () -> paymentService.updatePaymentStatuses(ids, "PAID"));
+        verifyNoInteractions(paymentRepository);
     }
 
     @Test
@@ -217,6 +719,65 @@ public class PaymentServiceImplTest {
         verify(paymentRepository).findById(testPaymentId);
     }
 
+    @Test
+    void getPayment_RepeatedPolls_ServedFromCache() {
+        when(paymentRepository.findById(testPaymentId)).thenReturn(Optional.of(testPayment));
+
+        paymentService.getPayment(testPaymentId.toString());
+        PaymentResponse response = paymentService.getPayment(testPaymentId.toString());
+
+        assertEquals(testPaymentId.toString(), response.getPaymentId());
+        verify(paymentRepository, times(1)).findById(testPaymentId);
+    }
+
+    @Test
+    void getFreshPayment_BypassesAndLeavesTheCacheAlone() {
+        when(paymentRepository.findById(testPaymentId)).thenReturn(Optional.of(testPayment));
+
+        paymentService.getPayment(testPaymentId.toString());
+        testPayment.setStatus(PaymentStatus.FAILED);
+        PaymentResponse fresh = paymentService.getFreshPayment(testPaymentId.toString());
+
+        assertEquals(PaymentStatus.FAILED, fresh.getStatus());
+        assertEquals(PaymentStatus.PAID, paymentService.getPayment(testPaymentId.toString()).getStatus());
+        verify(paymentRepository, times(2)).findById(testPaymentId);
+    }
+
+    @Test
+    void getFreshPayment_ReadsFromPrimary() {
+        List<Boolean> routedToPrimary = new ArrayList<>();
+        when(paymentRepository.findById(testPaymentId)).thenAnswer(invocation -> {
+            routedToPrimary.add(ReplicaRoutingDataSource.isPrimaryForced());
+            return Optional.of(testPayment);
+        });
+
+        paymentService.getFreshPayment(testPaymentId.toString());
+
+        assertEquals(List.of(true), routedToPrimary);
+    }
+
+    @Test
+    void getPayment_AfterStatusUpdate_ReloadsPayment() {
+        when(paymentRepository.findById(testPaymentId)).thenReturn(Optional.of(testPayment));
+        testPayment.setStatus(PaymentStatus.PENDING);
+        when(paymentRepository.updateStatusIfAllowed(eq(testPaymentId), eq("FAILED"), anyList(), any()))
+                .thenAnswer(invocation -> {
+                    testPayment.setStatus(PaymentStatus.FAILED);
+                    return Optional.of(testPayment);
+                });
+        doAnswer(invocation -> {
+            paymentResponseCache.invalidate(invocation.getArgument(0));
+            return null;
+        }).when(paymentChangeNotifier).paymentChanged(testPaymentId);
+
+        paymentService.getPayment(testPaymentId.toString());
+        paymentService.updatePaymentStatus(testPaymentId.toString(), "FAILED");
+        PaymentResponse response = paymentService.getPayment(testPaymentId.toString());
+
+        assertEquals(PaymentStatus.FAILED, response.getStatus());
+        verify(paymentRepository, times(2)).findById(testPaymentId);
+    }
+
     @Test
     void getPayment_WithRefund() {
         Refund refund = Refund.builder()
@@ -246,28 +807,159 @@ public class PaymentServiceImplTest {
 
     @Test
     void getPendingPayments_Success() {
-        List<Payment> pendingPayments = Arrays.asList(testPayment);
-        when(paymentRepository.findByStatus(PaymentStatus.PENDING)).thenReturn(pendingPayments);
+        when(paymentRepository.findViewsByStatus(PaymentStatus.PENDING)).thenReturn(List.of(viewOf(testPayment)));
 
         List<PaymentResponse> responses = paymentService.getPendingPayments();
 
         assertNotNull(responses);
         assertEquals(1, responses.size());
         assertEquals(testPaymentId.toString(), responses.get(0).getPaymentId());
-        verify(paymentRepository).findByStatus(PaymentStatus.PENDING);
+        verify(paymentRepository).findViewsByStatus(PaymentStatus.PENDING);
+        verify(paymentRepository, never()).findByStatus(any());
     }
 
     @Test
     void getUserPayments_Success() {
-        List<Payment> userPayments = Arrays.asList(testPayment);
-        when(paymentRepository.findByUserId(testUserId)).thenReturn(userPayments);
+        PaymentView refunded = new PaymentView(testPaymentId, testUserId, testCourseId, 100.0,
+                PaymentMethod.CREDIT_CARD, PaymentStatus.REFUNDED, "PAY-1", LocalDateTime.now(), LocalDateTime.now(),
+                "Duplicate purchase");
+        when(paymentRepository.findViewsByUserId(testUserId)).thenReturn(List.of(refunded));
 
         List<PaymentResponse> responses = paymentService.getUserPayments(testUserId.toString());
 
         assertNotNull(responses);
         assertEquals(1, responses.size());
         assertEquals(testPaymentId.toString(), responses.get(0).getPaymentId());
-        verify(paymentRepository).findByUserId(testUserId);
+        assertEquals("CREDIT_CARD", responses.get(0).getPaymentMethod());
+        assertEquals("Duplicate purchase", responses.get(0).getRefundReason());
+        verify(paymentRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    void getUserPaymentsPage_FirstPage_NoMoreRows() {
+        when(paymentRepository.findUserPage(eq(testUserId), any(Pageable.class)))
+                .thenReturn(List.of(viewOf(testPayment)));
+
+        PageResponse<PaymentResponse> page = paymentService.getUserPaymentsPage(testUserId.toString(), null, 20);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(paymentRepository).findUserPage(eq(testUserId), pageableCaptor.capture());
+        assertEquals(21, pageableCaptor.getValue().getPageSize());
+    }
+
+    @Test
+    void getUserPaymentsPage_ExtraRow_ReturnsCursorOfLastItem() {
+        List<PaymentView> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(new PaymentView(UUID.randomUUID(), testUserId, testCourseId, 100.0, PaymentMethod.CREDIT_CARD,
+                    PaymentStatus.PAID, "PAY-" + i, LocalDateTime.now().minusMinutes(i), null, null));
+        }
+        when(paymentRepository.findUserPage(eq(testUserId), any(Pageable.class))).thenReturn(rows);
+
+        PageResponse<PaymentResponse> page = paymentService.getUserPaymentsPage(testUserId.toString(), null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        KeysetCursor cursor = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(1).id(), cursor.getId());
+        assertEquals(rows.get(1).createdAt(), cursor.getCreatedAt());
+    }
+
+    @Test
+    void getUserPaymentsPage_WithCursor_SeeksAfterPosition() {
+        LocalDateTime createdAt = LocalDateTime.now();
+        UUID lastId = UUID.randomUUID();
+        String cursor = new KeysetCursor(createdAt, lastId).encode();
+        when(paymentRepository.findUserPageAfter(eq(testUserId), eq(createdAt), eq(lastId), any(Pageable.class)))
+                .thenReturn(List.of(viewOf(testPayment)));
+
+        PageResponse<PaymentResponse> page = paymentService.getUserPaymentsPage(testUserId.toString(), cursor, 20);
+
+        assertEquals(1, page.getItems().size());
+        verify(paymentRepository, never()).findUserPage(any(), any());
+    }
+
+    @Test
+    void getUserPaymentsPage_SizeAboveCap_IsClamped() {
+        when(paymentRepository.findUserPage(eq(testUserId), any(Pageable.class))).thenReturn(List.of());
+
+        paymentService.getUserPaymentsPage(testUserId.toString(), null, 10_000);
+
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(paymentRepository).findUserPage(eq(testUserId), pageableCaptor.capture());
+        assertEquals(KeysetPagination.MAX_PAGE_SIZE + 1, pageableCaptor.getValue().getPageSize());
+    }
+
+    @Test
+    void getUserPaymentsPage_InvalidCursor_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentService.getUserPaymentsPage(testUserId.toString(), "not-a-cursor", 20));
+    }
+
+    @Test
+    void getPendingPaymentsPage_FirstPage() {
+        testPayment.setStatus(PaymentStatus.PENDING);
+        when(paymentRepository.findStatusPage(eq(PaymentStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(viewOf(testPayment)));
+
+        PageResponse<PaymentResponse> page = paymentService.getPendingPaymentsPage(null, 50);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        verify(paymentRepository, never()).findViewsByStatus(any());
+    }
+
+    @Test
+    void getPendingPaymentsPage_WithCursor_SeeksAfterPosition() {
+        LocalDateTime createdAt = LocalDateTime.now();
+        UUID lastId = UUID.randomUUID();
+        String cursor = new KeysetCursor(createdAt, lastId).encode();
+        when(paymentRepository.findStatusPageAfter(eq(PaymentStatus.PENDING), eq(createdAt), eq(lastId), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        PageResponse<PaymentResponse> page = paymentService.getPendingPaymentsPage(cursor, 50);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void countPendingPayments_UsesCountQuery() {
+        when(paymentRepository.countByStatus(PaymentStatus.PENDING)).thenReturn(3L);
+
+        assertEquals(3L, paymentService.countPendingPayments());
+        verify(paymentRepository, never()).findViewsByStatus(any());
+    }
+
+    @Test
+    void streamUserPayments_EmitsEachRow() {
+        when(paymentRepository.findUserPage(eq(testUserId), any())).thenReturn(List.of(viewOf(testPayment)));
+        List<PaymentResponse> emitted = new ArrayList<>();
+
+        paymentService.streamUserPayments(testUserId.toString(), emitted::add);
+
+        assertEquals(1, emitted.size());
+        assertEquals(testPaymentId.toString(), emitted.get(0).getPaymentId());
+        verify(paymentRepository, never()).findUserPageAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    void streamUserPayments_FullPage_ContinuesAfterItsLastRow() {
+        PaymentView last = viewOf(testPayment);
+        List<PaymentView> fullPage = Stream.concat(
+                Stream.generate(() -> viewOf(testPayment)).limit(PaymentServiceImpl.STREAM_PAGE_SIZE - 1),
+                Stream.of(last)).toList();
+        when(paymentRepository.findUserPage(eq(testUserId), any())).thenReturn(fullPage);
+        when(paymentRepository.findUserPageAfter(eq(testUserId), eq(last.createdAt()), eq(last.id()), any()))
+                .thenReturn(List.of(viewOf(testPayment)));
+        List<PaymentResponse> emitted = new ArrayList<>();
+
+        paymentService.streamUserPayments(testUserId.toString(), emitted::add);
+
+        assertEquals(PaymentServiceImpl.STREAM_PAGE_SIZE + 1, emitted.size());
     }
 
     @Test
@@ -306,4 +998,41 @@ public class PaymentServiceImplTest {
         assertNotEquals(payment1, null);
         assertNotEquals(payment1, "not a payment");
     }
-}
\ No newline at end of file
+
+    private static PaymentStatusView statusView(UUID id, PaymentStatus status) {
+        return new PaymentStatusView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public PaymentStatus getStatus() {
+                return status;
+            }
+        };
+    }
+
+    private static PaymentView viewOf(Payment payment) {
+        return new PaymentView(payment.getId(), payment.getUserId(), payment.getCourseId(), payment.getAmount(),
+                payment.getMethod(), payment.getStatus(), payment.getPaymentReference(), payment.getCreatedAt(),
+                payment.getUpdatedAt(), null);
+    }
+
+    // The guarded UPDATE moves every payment it is given
+    private void applyStatusUpdates() {
+        when(paymentRepository.updateStatusesIfAllowed(anyCollection(), any(), anyList(), any()))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<UUID>>getArgument(0)));
+    }
+
+    private void runGatewayCallsInline() {
+        when(gatewayExecutor.supplyAsync(any())).thenAnswer(invocation -> {
+            Supplier<?> call = invocation.getArgument(0);
+            try {
+                return CompletableFuture.completedFuture(call.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+}
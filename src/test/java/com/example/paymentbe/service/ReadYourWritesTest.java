@@ -0,0 +1,77 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.config.ReplicaLagMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReadYourWritesTest {
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private ReadYourWrites readYourWrites;
+
+    @BeforeEach
+    void setUp() {
+        readYourWrites = new ReadYourWrites(lagMonitor, Duration.ofSeconds(3), nanos::get);
+        lenient().when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        lenient().when(lagMonitor.getLagMillis()).thenReturn(500L);
+        lenient().when(lagMonitor.getMaxReadingAgeMillis()).thenReturn(2_000L);
+    }
+
+    @Test
+    void unwrittenKey_ReadsFromReplica() {
+        assertFalse(readYourWrites.requiresPrimary(UUID.randomUUID()));
+    }
+
+    @Test
+    void recentWrite_ReadsFromPrimaryUntilReplicaCatchesUp() {
+        UUID paymentId = UUID.randomUUID();
+        readYourWrites.recordWrite(paymentId);
+
+        advance(2_000);
+        assertTrue(readYourWrites.requiresPrimary(paymentId));
+
+        advance(600);
+        assertFalse(readYourWrites.requiresPrimary(paymentId));
+    }
+
+    @Test
+    void recentWrite_ReplicaBypassed_ReadsFromPrimary() {
+        UUID paymentId = UUID.randomUUID();
+        readYourWrites.recordWrite(paymentId);
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+
+        advance(2_000);
+
+        assertTrue(readYourWrites.requiresPrimary(paymentId));
+    }
+
+    @Test
+    void withoutReplica_NothingIsTracked() {
+        ReadYourWrites noReplica = new ReadYourWrites(null, Duration.ofSeconds(3), nanos::get);
+        UUID paymentId = UUID.randomUUID();
+        noReplica.recordWrite(paymentId);
+
+        assertFalse(noReplica.requiresPrimary(paymentId));
+        assertEquals("result", noReplica.read(paymentId, () -> "result"));
+    }
+
+    private void advance(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
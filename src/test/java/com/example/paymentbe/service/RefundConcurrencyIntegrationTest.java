@@ -0,0 +1,131 @@
+package com.example.paymentbe.service;
+
+import com.example.paymentbe.dto.RefundRequest;
+import com.example.paymentbe.dto.RefundResponse;
+import com.example.paymentbe.enums.PaymentMethod;
+import com.example.paymentbe.enums.PaymentStatus;
+import com.example.paymentbe.model.Payment;
+import com.example.paymentbe.repository.PaymentRepository;
+import com.example.paymentbe.repository.RefundRepository;
+import com.example.paymentbe.service.outbox.OutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires parallel refund requests at the same payments against a real Postgres. Exactly one
+ * request per payment may win; the rest must fail with a business error, never with a second
+ * refund row or a lost update.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(RefundServiceImpl.class)
+class RefundConcurrencyIntegrationTest {
+
+    private static final int PAYMENTS = 20;
+    private static final int REQUESTS_PER_PAYMENT = 8;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @MockitoBean
+    private PaymentChangeNotifier paymentChangeNotifier;
+
+    @MockitoBean
+    private OutboxService outboxService;
+
+    @Autowired
+    private RefundService refundService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Test
+    void parallelRefundRequests_ExactlyOneWinsPerPayment() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(REQUESTS_PER_PAYMENT);
+        try {
+            for (int i = 0; i < PAYMENTS; i++) {
+                UUID paymentId = paymentRepository.save(paidPayment()).getId();
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<RefundResponse>> requests = new ArrayList<>();
+                for (int j = 0; j < REQUESTS_PER_PAYMENT; j++) {
+                    requests.add(pool.submit(() -> {
+                        start.await();
+                        return refundService.requestRefund(paymentId.toString(), refundRequest());
+                    }));
+                }
+                start.countDown();
+
+                int succeeded = 0;
+                for (Future<RefundResponse> request : requests) {
+                    try {
+                        request.get(30, TimeUnit.SECONDS);
+                        succeeded++;
+                    } catch (ExecutionException e) {
+                        assertInstanceOf(IllegalStateException.class, e.getCause());
+                    }
+                }
+
+                assertEquals(1, succeeded);
+                Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+                assertEquals(PaymentStatus.REFUND_REQUESTED, payment.getStatus());
+                assertEquals(1L, payment.getVersion());
+                assertTrue(refundRepository.existsByPaymentId(paymentId));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Payment paidPayment() {
+        return Payment.builder()
+                .userId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .amount(100.0)
+                .method(PaymentMethod.CREDIT_CARD)
+                .status(PaymentStatus.PAID)
+                .paymentReference("PAY-" + UUID.randomUUID())
+                .build();
+    }
+
+    private static RefundRequest refundRequest() {
+        RefundRequest request = new RefundRequest();
+        request.setReason("Duplicate purchase");
+        return request;
+    }
+}
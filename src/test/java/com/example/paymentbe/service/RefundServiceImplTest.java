@@ -1,8 +1,13 @@
 package com.example.paymentbe.service;
 
+import com.example.paymentbe.dto.BulkUpdateResponse;
+import com.example.paymentbe.dto.BulkUpdateResult;
+import com.example.paymentbe.dto.PageResponse;
 import com.example.paymentbe.dto.PaymentResponse;
 import com.example.paymentbe.dto.RefundRequest;
 import com.example.paymentbe.dto.RefundResponse;
+import com.example.paymentbe.enums.BulkUpdateOutcome;
+import com.example.paymentbe.enums.OutboxEventType;
 import com.example.paymentbe.enums.PaymentMethod;
 import com.example.paymentbe.enums.PaymentStatus;
 import com.example.paymentbe.enums.RefundStatus;
@@ -10,22 +15,34 @@ import com.example.paymentbe.model.Payment;
 import com.example.paymentbe.model.Refund;
 import com.example.paymentbe.repository.PaymentRepository;
 import com.example.paymentbe.repository.RefundRepository;
+import com.example.paymentbe.repository.RefundStatusView;
+import com.example.paymentbe.repository.RefundView;
+import com.example.paymentbe.service.outbox.OutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +54,15 @@ class RefundServiceImplTest {
     @Mock
     private RefundRepository refundRepository;
 
+    @Mock
+    private PaymentChangeNotifier paymentChangeNotifier;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private RefundServiceImpl refundService;
 
@@ -59,8 +85,9 @@ class RefundServiceImplTest {
     @Test
     void requestRefund_Success() {
         // Given
-        when(paymentRepository.findById(paymentUUID)).thenReturn(Optional.of(mockPayment));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(mockPayment);
+        mockPayment.setStatus(PaymentStatus.REFUND_REQUESTED);
+        when(paymentRepository.updateStatusIfAllowed(eq(paymentUUID), eq("REFUND_REQUESTED"), eq(List.of("PAID")),
+                any(LocalDateTime.class))).thenReturn(Optional.of(mockPayment));
         when(refundRepository.save(any(Refund.class))).thenReturn(mockRefund);
 
         // When
@@ -74,11 +101,6 @@ class RefundServiceImplTest {
         assertNotNull(result.getCreatedAt());
         assertNotNull(result.getRequestedAt());
 
-        // Verify payment status was updated
-        ArgumentCaptor<Payment> paymentCaptor = ArgumentCaptor.forClass(Payment.class);
-        verify(paymentRepository).save(paymentCaptor.capture());
-        assertEquals(PaymentStatus.REFUND_REQUESTED, paymentCaptor.getValue().getStatus());
-
         // Verify refund was created
         ArgumentCaptor<Refund> refundCaptor = ArgumentCaptor.forClass(Refund.class);
         verify(refundRepository).save(refundCaptor.capture());
@@ -86,48 +108,46 @@ class RefundServiceImplTest {
         assertEquals("Product not as described", refundCaptor.getValue().getReason());
         assertNotNull(refundCaptor.getValue().getCreatedAt());
 
-        verify(paymentRepository, times(1)).findById(paymentUUID);
-        verify(paymentRepository, times(1)).save(any(Payment.class));
-        verify(refundRepository, times(1)).save(any(Refund.class));
+        // The status check and write happen in the guarded UPDATE, not through a read and save
+        verify(paymentRepository, never()).findById(any());
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verify(paymentChangeNotifier).paymentChanged(paymentUUID);
     }
 
     @Test
     void requestRefund_PaymentNotFound_ThrowsException() {
         // Given
-        when(paymentRepository.findById(paymentUUID)).thenReturn(Optional.empty());
+        when(paymentRepository.updateStatusIfAllowed(eq(paymentUUID), any(), any(), any())).thenReturn(Optional.empty());
+        when(paymentRepository.findStatusById(paymentUUID)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> refundService.requestRefund(paymentId, refundRequest));
         
         assertEquals("Payment not found with ID: " + paymentId, exception.getMessage());
-        
-        verify(paymentRepository, times(1)).findById(paymentUUID);
-        verify(paymentRepository, never()).save(any(Payment.class));
         verify(refundRepository, never()).save(any(Refund.class));
     }
 
     @Test
     void requestRefund_NotPaidPayment_ThrowsException() {
         // Given
-        mockPayment.setStatus(PaymentStatus.PENDING);
-        when(paymentRepository.findById(paymentUUID)).thenReturn(Optional.of(mockPayment));
+        when(paymentRepository.updateStatusIfAllowed(eq(paymentUUID), any(), any(), any())).thenReturn(Optional.empty());
+        when(paymentRepository.findStatusById(paymentUUID)).thenReturn(Optional.of(PaymentStatus.PENDING));
 
         // When & Then
         IllegalStateException exception = assertThrows(IllegalStateException.class, 
             () -> refundService.requestRefund(paymentId, refundRequest));
         
         assertEquals("Only PAID payments can be refunded", exception.getMessage());
-        
-        verify(paymentRepository, times(1)).findById(paymentUUID);
-        verify(paymentRepository, never()).save(any(Payment.class));
         verify(refundRepository, never()).save(any(Refund.class));
+        verify(paymentChangeNotifier, never()).paymentChanged(any());
     }
 
     @Test
     void requestRefund_ExistingRefund_ThrowsException() {
         // Given
-        when(paymentRepository.findById(paymentUUID)).thenReturn(Optional.of(mockPayment));
+        when(paymentRepository.updateStatusIfAllowed(eq(paymentUUID), any(), any(), any()))
+                .thenReturn(Optional.of(mockPayment));
         when(refundRepository.existsByPaymentId(paymentUUID)).thenReturn(true);
 
         // When & Then
@@ -135,18 +155,79 @@ class RefundServiceImplTest {
             () -> refundService.requestRefund(paymentId, refundRequest));
         
         assertEquals("Refund request already exists for this payment", exception.getMessage());
-        
-        verify(paymentRepository, times(1)).findById(paymentUUID);
-        verify(refundRepository, times(1)).existsByPaymentId(paymentUUID);
-        verify(paymentRepository, never()).save(any(Payment.class));
         verify(refundRepository, never()).save(any(Refund.class));
+        verify(paymentChangeNotifier, never()).paymentChanged(any());
+    }
+
+    @Test
+    void requestRefund_ConflictAtCommit_RetriesAgainstFreshState() {
+        // Given: a concurrent request moved the payment on before this one committed
+        when(paymentRepository.updateStatusIfAllowed(eq(paymentUUID), any(), any(), any()))
+                .thenReturn(Optional.of(mockPayment), Optional.empty());
+        when(paymentRepository.findStatusById(paymentUUID)).thenReturn(Optional.of(PaymentStatus.REFUND_REQUESTED));
+        when(refundRepository.save(any(Refund.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Payment.class, paymentUUID));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> refundService.requestRefund(paymentId, refundRequest));
+
+        assertEquals("Only PAID payments can be refunded", exception.getMessage());
+        verify(paymentRepository, times(2)).updateStatusIfAllowed(eq(paymentUUID), any(), any(), any());
+        verify(refundRepository, times(1)).save(any(Refund.class));
+    }
+
+    @Test
+    void requestRefund_DuplicateRefundRow_RetriesAndReportsExistingRefund() {
+        // Given
+        when(paymentRepository.updateStatusIfAllowed(eq(paymentUUID), any(), any(), any()))
+                .thenReturn(Optional.of(mockPayment));
+        when(refundRepository.existsByPaymentId(paymentUUID)).thenReturn(false, true);
+        when(refundRepository.save(any(Refund.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("duplicate key value violates unique constraint \"idx_refunds_payment_id\"")));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> refundService.requestRefund(paymentId, refundRequest));
+
+        assertEquals("Refund request already exists for this payment", exception.getMessage());
+        verify(refundRepository, times(2)).existsByPaymentId(paymentUUID);
+    }
+
+    @Test
+    void requestRefund_OtherIntegrityViolation_IsNotRetried() {
+        // Given
+        when(paymentRepository.updateStatusIfAllowed(eq(paymentUUID), any(), any(), any()))
+                .thenReturn(Optional.of(mockPayment));
+        when(refundRepository.save(any(Refund.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("null value in column \"reason\" violates not-null constraint")));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> refundService.requestRefund(paymentId, refundRequest));
+
+        verify(paymentRepository, times(1)).updateStatusIfAllowed(eq(paymentUUID), any(), any(), any());
+    }
+
+    @Test
+    void requestRefund_PersistentConflict_GivesUpAfterMaxAttempts() {
+        // Given
+        when(paymentRepository.updateStatusIfAllowed(eq(paymentUUID), any(), any(), any()))
+                .thenReturn(Optional.of(mockPayment));
+        when(refundRepository.save(any(Refund.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Payment.class, paymentUUID));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> refundService.requestRefund(paymentId, refundRequest));
+
+        assertEquals("Payment was modified concurrently, please retry", exception.getMessage());
+        verify(paymentRepository, times(3)).updateStatusIfAllowed(eq(paymentUUID), any(), any(), any());
     }
 
     @Test
     void getPendingRefunds_Success() {
         // Given
-        List<Refund> mockRefunds = Arrays.asList(mockRefund);
-        when(refundRepository.findByStatus(RefundStatus.PENDING)).thenReturn(mockRefunds);
+        when(refundRepository.findViewsByStatus(RefundStatus.PENDING)).thenReturn(List.of(viewOf(mockRefund)));
 
         // When
         List<RefundResponse> result = refundService.getPendingRefunds();
@@ -156,12 +237,66 @@ class RefundServiceImplTest {
         assertEquals(1, result.size());
         
         RefundResponse response = result.get(0);
-        assertEquals(mockRefund.getId().toString(), response.getId().toString());
-        assertEquals(mockRefund.getPayment().getId().toString(), response.getPaymentId().toString());
+        assertEquals(mockRefund.getId(), response.getId());
+        assertEquals(mockRefund.getId(), response.getPaymentId());
+        assertEquals(mockRefund.getId().toString(), response.getPayment().getPaymentId());
         assertEquals(mockRefund.getReason(), response.getReason());
         assertEquals(mockRefund.getStatus(), response.getStatus());
+        assertEquals(mockPayment.getStatus(), response.getPayment().getStatus());
+        assertEquals(mockPayment.getMethod().name(), response.getPayment().getPaymentMethod());
         
-        verify(refundRepository, times(1)).findByStatus(RefundStatus.PENDING);
+        verify(refundRepository, times(1)).findViewsByStatus(RefundStatus.PENDING);
+    }
+
+    @Test
+    void getPendingRefundsPage_FirstPage_ReturnsCursorWhenMoreRows() {
+        // Given
+        Refund older = createMockRefund();
+        older.setCreatedAt(LocalDateTime.now().minusHours(2));
+        Refund newer = createMockRefund();
+        newer.setCreatedAt(LocalDateTime.now().minusHours(1));
+        when(refundRepository.findStatusPage(eq(RefundStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(viewOf(older), viewOf(newer)));
+
+        // When
+        PageResponse<RefundResponse> page = refundService.getPendingRefundsPage(null, 1);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(older.getId(), KeysetCursor.decode(page.getNextCursor()).getId());
+        verify(refundRepository, never()).findViewsByStatus(any());
+    }
+
+    @Test
+    void getPendingRefundsPage_WithCursor_SeeksAfterPosition() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.now();
+        UUID lastId = UUID.randomUUID();
+        String cursor = new KeysetCursor(createdAt, lastId).encode();
+        when(refundRepository.findStatusPageAfter(eq(RefundStatus.PENDING), eq(createdAt), eq(lastId), any(Pageable.class)))
+                .thenReturn(List.of(viewOf(mockRefund)));
+
+        // When
+        PageResponse<RefundResponse> page = refundService.getPendingRefundsPage(cursor, 10);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void countPendingRefunds_UsesCountQuery() {
+        // Given
+        when(refundRepository.countByStatus(RefundStatus.PENDING)).thenReturn(7L);
+
+        // When
+        long count = refundService.countPendingRefunds();
+
+        // Then
+        assertEquals(7L, count);
+        verify(refundRepository, never()).findViewsByStatus(any());
     }
 
     @Test
@@ -245,35 +380,42 @@ class RefundServiceImplTest {
     @Test
     void processRefund_Success_Accepted() {
         // Given
-        UUID refundId = UUID.randomUUID();
-        when(refundRepository.findById(refundId)).thenReturn(Optional.of(mockRefund));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(mockPayment);
-        when(refundRepository.save(any(Refund.class))).thenReturn(mockRefund);
+        UUID refundId = mockRefund.getId();
+        mockRefund.setStatus(RefundStatus.ACCEPTED);
+        mockRefund.setProcessedBy("admin");
+        when(refundRepository.updateStatusesIfAllowed(eq(List.of(refundId)), eq("ACCEPTED"), eq(List.of("PENDING")),
+                any(LocalDateTime.class), eq("admin"))).thenReturn(List.of(refundId));
+        when(paymentRepository.updateStatusesIfAllowed(eq(List.of(refundId)), eq("REFUNDED"),
+                eq(List.of("REFUND_REQUESTED")), any(LocalDateTime.class))).thenReturn(List.of(refundId));
+        when(refundRepository.findAllWithPaymentByIdIn(List.of(refundId))).thenReturn(List.of(mockRefund));
 
         // When
-        RefundResponse result = refundService.processRefund(refundId.toString(), "ACCEPTED", "admin");
+        RefundResponse result = refundService.processRefund(refundId.toString(), "accepted", "admin");
 
         // Then
         assertNotNull(result);
         assertEquals(RefundStatus.ACCEPTED, result.getStatus());
         assertEquals("admin", result.getProcessedBy());
-        
-        verify(refundRepository).findById(refundId);
-        verify(paymentRepository).save(any(Payment.class));
-        verify(refundRepository).save(any(Refund.class));
 
-        ArgumentCaptor<Payment> paymentCaptor = ArgumentCaptor.forClass(Payment.class);
-        verify(paymentRepository).save(paymentCaptor.capture());
-        assertEquals(PaymentStatus.REFUNDED, paymentCaptor.getValue().getStatus());
+        verify(paymentRepository).updateStatusesIfAllowed(eq(List.of(refundId)), eq("REFUNDED"),
+                eq(List.of("REFUND_REQUESTED")), any(LocalDateTime.class));
+        verify(refundRepository, never()).findById(any());
+        verify(refundRepository, never()).save(any(Refund.class));
+        verify(paymentChangeNotifier).paymentsChanged(List.of(refundId));
+        verify(outboxService).record(OutboxEventType.REFUND_PROCESSED, refundId, result);
     }
 
     @Test
     void processRefund_Success_Rejected() {
         // Given
-        UUID refundId = UUID.randomUUID();
-        when(refundRepository.findById(refundId)).thenReturn(Optional.of(mockRefund));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(mockPayment);
-        when(refundRepository.save(any(Refund.class))).thenReturn(mockRefund);
+        UUID refundId = mockRefund.getId();
+        mockRefund.setStatus(RefundStatus.REJECTED);
+        mockRefund.setProcessedBy("admin");
+        when(refundRepository.updateStatusesIfAllowed(eq(List.of(refundId)), eq("REJECTED"), eq(List.of("PENDING")),
+                any(LocalDateTime.class), eq("admin"))).thenReturn(List.of(refundId));
+        when(paymentRepository.updateStatusesIfAllowed(eq(List.of(refundId)), eq("PAID"),
+                eq(PaymentStatus.PAID.refundPredecessorNames()), any(LocalDateTime.class))).thenReturn(List.of(refundId));
+        when(refundRepository.findAllWithPaymentByIdIn(List.of(refundId))).thenReturn(List.of(mockRefund));
 
         // When
         RefundResponse result = refundService.processRefund(refundId.toString(), "REJECTED", "admin");
@@ -282,62 +424,179 @@ class RefundServiceImplTest {
         assertNotNull(result);
         assertEquals(RefundStatus.REJECTED, result.getStatus());
         assertEquals("admin", result.getProcessedBy());
-        
-        verify(refundRepository).findById(refundId);
-        verify(paymentRepository).save(any(Payment.class));
-        verify(refundRepository).save(any(Refund.class));
 
-        ArgumentCaptor<Payment> paymentCaptor = ArgumentCaptor.forClass(Payment.class);
-        verify(paymentRepository).save(paymentCaptor.capture());
-        assertEquals(PaymentStatus.PAID, paymentCaptor.getValue().getStatus());
+        verify(paymentRepository).updateStatusesIfAllowed(eq(List.of(refundId)), eq("PAID"),
+                eq(PaymentStatus.PAID.refundPredecessorNames()), any(LocalDateTime.class));
+    }
+
+    @Test
+    void processRefund_PaymentNoLongerAwaitingRefund_Throws() {
+        // Given
+        UUID refundId = mockRefund.getId();
+        when(refundRepository.updateStatusesIfAllowed(eq(List.of(refundId)), eq("ACCEPTED"), eq(List.of("PENDING")),
+                any(LocalDateTime.class), eq("admin"))).thenReturn(List.of(refundId));
+        when(paymentRepository.updateStatusesIfAllowed(eq(List.of(refundId)), eq("REFUNDED"),
+                eq(List.of("REFUND_REQUESTED")), any(LocalDateTime.class))).thenReturn(List.of());
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> refundService.processRefund(refundId.toString(), "ACCEPTED", "admin"));
+
+        assertEquals("Payments are not awaiting a refund decision: [" + refundId + "]", exception.getMessage());
+        verify(refundRepository, never()).findAllWithPaymentByIdIn(any());
+        verifyNoInteractions(outboxService, paymentChangeNotifier);
     }
 
     @Test
     void processRefund_NotFound() {
         // Given
         UUID refundId = UUID.randomUUID();
-        when(refundRepository.findById(refundId)).thenReturn(Optional.empty());
+        when(refundRepository.updateStatusesIfAllowed(eq(List.of(refundId)), any(), any(), any(), any()))
+                .thenReturn(List.of());
+        when(refundRepository.findStatusById(refundId)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> refundService.processRefund(refundId.toString(), "ACCEPTED", "admin"));
 
         assertEquals("Refund not found with ID: " + refundId, exception.getMessage());
-        verify(refundRepository).findById(refundId);
-        verify(paymentRepository, never()).save(any(Payment.class));
-        verify(refundRepository, never()).save(any(Refund.class));
+        verifyNoInteractions(paymentRepository, outboxService, paymentChangeNotifier);
     }
 
     @Test
     void processRefund_NotPending() {
         // Given
         UUID refundId = UUID.randomUUID();
-        mockRefund.setStatus(RefundStatus.ACCEPTED);
-        when(refundRepository.findById(refundId)).thenReturn(Optional.of(mockRefund));
+        when(refundRepository.updateStatusesIfAllowed(eq(List.of(refundId)), any(), any(), any(), any()))
+                .thenReturn(List.of());
+        when(refundRepository.findStatusById(refundId)).thenReturn(Optional.of(RefundStatus.ACCEPTED));
 
         // When & Then
         IllegalStateException exception = assertThrows(IllegalStateException.class,
                 () -> refundService.processRefund(refundId.toString(), "ACCEPTED", "admin"));
 
         assertEquals("Only PENDING refunds can be processed", exception.getMessage());
-        verify(refundRepository).findById(refundId);
-        verify(paymentRepository, never()).save(any(Payment.class));
-        verify(refundRepository, never()).save(any(Refund.class));
+        verifyNoInteractions(paymentRepository, outboxService, paymentChangeNotifier);
     }
 
     @Test
     void processRefund_InvalidStatus() {
         // Given
         UUID refundId = UUID.randomUUID();
-        when(refundRepository.findById(refundId)).thenReturn(Optional.of(mockRefund));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> refundService.processRefund(refundId.toString(), "INVALID_STATUS", "admin"));
 
-        verify(refundRepository).findById(refundId);
-        verify(paymentRepository, never()).save(any(Payment.class));
-        verify(refundRepository, never()).save(any(Refund.class));
+        assertEquals("Invalid refund status: INVALID_STATUS", exception.getMessage());
+        verifyNoInteractions(refundRepository, paymentRepository);
+    }
+
+    @Test
+    void processRefund_PendingTarget_Throws() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> refundService.processRefund(UUID.randomUUID().toString(), "PENDING", "admin"));
+
+        verifyNoInteractions(refundRepository, paymentRepository);
+    }
+
+    @Test
+    void processRefunds_AcceptsPendingRefundsAndRefundsTheirPayments() {
+        // Given
+        UUID processedId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        when(refundRepository.updateStatusesIfAllowed(anyCollection(), eq("ACCEPTED"), eq(List.of("PENDING")),
+                any(LocalDateTime.class), eq("admin")))
+                .thenReturn(List.of(paymentUUID));
+        when(refundRepository.findStatusesByIdIn(Set.of(processedId, missingId)))
+                .thenReturn(List.of(statusView(processedId, RefundStatus.REJECTED)));
+        when(paymentRepository.updateStatusesIfAllowed(eq(List.of(paymentUUID)), eq("REFUNDED"),
+                eq(List.of("REFUND_REQUESTED")), any(LocalDateTime.class))).thenReturn(List.of(paymentUUID));
+        when(refundRepository.findAllWithPaymentByIdIn(List.of(paymentUUID))).thenReturn(List.of(mockRefund));
+
+        // When
+        BulkUpdateResponse response = refundService.processRefunds(
+                List.of(paymentId, processedId.toString(), missingId.toString()), "accepted", "admin");
+
+        // Then
+        assertEquals(3, response.getTotal());
+        assertEquals(1, response.getUpdated());
+        assertEquals(List.of(BulkUpdateOutcome.UPDATED, BulkUpdateOutcome.INVALID_TRANSITION, BulkUpdateOutcome.NOT_FOUND),
+                response.getResults().stream().map(BulkUpdateResult::getOutcome).toList());
+        assertEquals("REJECTED", response.getResults().get(1).getStatus());
+        verify(paymentRepository).updateStatusesIfAllowed(eq(List.of(paymentUUID)), eq("REFUNDED"),
+                eq(List.of("REFUND_REQUESTED")), any(LocalDateTime.class));
+        verify(outboxService).record(eq(OutboxEventType.REFUND_PROCESSED), eq(mockRefund.getId()),
+                any(RefundResponse.class));
+        verify(paymentChangeNotifier).paymentsChanged(List.of(paymentUUID));
+    }
+
+    @Test
+    void processRefunds_Rejected_RestoresPaymentToPaid() {
+        // Given
+        when(refundRepository.updateStatusesIfAllowed(anyCollection(), eq("REJECTED"), any(), any(), any()))
+                .thenReturn(List.of(paymentUUID));
+        when(paymentRepository.updateStatusesIfAllowed(eq(List.of(paymentUUID)), eq("PAID"),
+                eq(PaymentStatus.PAID.refundPredecessorNames()), any(LocalDateTime.class))).thenReturn(List.of(paymentUUID));
+        when(refundRepository.findAllWithPaymentByIdIn(List.of(paymentUUID))).thenReturn(List.of(mockRefund));
+
+        // When
+        refundService.processRefunds(List.of(paymentId), "REJECTED", "admin");
+
+        // Then
+        verify(paymentRepository).updateStatusesIfAllowed(eq(List.of(paymentUUID)), eq("PAID"),
+                eq(PaymentStatus.PAID.refundPredecessorNames()), any(LocalDateTime.class));
+        verify(refundRepository, never()).findStatusesByIdIn(any());
+    }
+
+    @Test
+    void processRefunds_PaymentUpdateMatchesFewerRows_Throws() {
+        // Given
+        UUID otherId = UUID.randomUUID();
+        when(refundRepository.updateStatusesIfAllowed(anyCollection(), eq("REJECTED"), eq(List.of("PENDING")),
+                any(LocalDateTime.class), eq("admin"))).thenReturn(List.of(paymentUUID, otherId));
+        when(paymentRepository.updateStatusesIfAllowed(eq(List.of(paymentUUID, otherId)), eq("PAID"),
+                eq(PaymentStatus.PAID.refundPredecessorNames()), any(LocalDateTime.class)))
+                .thenReturn(List.of(paymentUUID));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> refundService.processRefunds(List.of(paymentId, otherId.toString()), "REJECTED", "admin"));
+
+        assertEquals("Payments are not awaiting a refund decision: [" + otherId + "]", exception.getMessage());
+        verify(refundRepository, never()).findAllWithPaymentByIdIn(any());
+        verifyNoInteractions(outboxService, paymentChangeNotifier);
+    }
+
+    @Test
+    void processRefunds_SameIdInAnotherSpelling_ProcessedOnceAndReportedAsDuplicate() {
+        // Given
+        when(refundRepository.updateStatusesIfAllowed(eq(Set.of(paymentUUID)), eq("REJECTED"), eq(List.of("PENDING")),
+                any(LocalDateTime.class), eq("admin"))).thenReturn(List.of(paymentUUID));
+        when(paymentRepository.updateStatusesIfAllowed(eq(List.of(paymentUUID)), eq("PAID"),
+                eq(PaymentStatus.PAID.refundPredecessorNames()), any(LocalDateTime.class))).thenReturn(List.of(paymentUUID));
+        when(refundRepository.findAllWithPaymentByIdIn(List.of(paymentUUID))).thenReturn(List.of(mockRefund));
+
+        // When
+        BulkUpdateResponse response = refundService.processRefunds(
+                List.of(paymentId, paymentId.toUpperCase()), "REJECTED", "admin");
+
+        // Then
+        assertEquals(2, response.getTotal());
+        assertEquals(1, response.getUpdated());
+        assertEquals(0, response.getFailed());
+        assertEquals(List.of(BulkUpdateOutcome.UPDATED, BulkUpdateOutcome.DUPLICATE_ID),
+                response.getResults().stream().map(BulkUpdateResult::getOutcome).toList());
+    }
+
+    @Test
+    void processRefunds_PendingTarget_Throws() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> refundService.processRefunds(List.of(paymentId), "PENDING", "admin"));
+
+        verifyNoInteractions(refundRepository, paymentRepository, paymentChangeNotifier);
     }
 
     @Test
@@ -480,6 +739,28 @@ class RefundServiceImplTest {
                 .build();
     }
 
+    private static RefundView viewOf(Refund refund) {
+        Payment payment = refund.getPayment();
+        return new RefundView(refund.getId(), refund.getReason(), refund.getProcessedBy(), refund.getStatus(),
+                refund.getCreatedAt(), refund.getRequestedAt(), refund.getProcessedAt(), payment.getUserId(),
+                payment.getCourseId(), payment.getAmount(), payment.getMethod(), payment.getStatus(),
+                payment.getPaymentReference(), payment.getCreatedAt(), payment.getUpdatedAt());
+    }
+
+    private static RefundStatusView statusView(UUID id, RefundStatus status) {
+        return new RefundStatusView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public RefundStatus getStatus() {
+                return status;
+            }
+        };
+    }
+
     private PaymentResponse buildPaymentResponse(Payment payment) {
         return PaymentResponse.builder()
                 .paymentId(payment.getId().toString())
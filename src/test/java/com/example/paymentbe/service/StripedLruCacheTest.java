@@ -0,0 +1,53 @@
+package com.example.paymentbe.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLruCacheTest {
+
+    @Test
+    void putAndGet_ReturnsValue() {
+        StripedLruCache<String, Integer> cache = new StripedLruCache<>(16, 4);
+
+        cache.put("a", 1);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void put_BeyondCapacity_EvictsLeastRecentlyUsed() {
+        StripedLruCache<Integer, String> cache = new StripedLruCache<>(2, 1);
+
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("three", cache.get(3));
+    }
+
+    @Test
+    void size_NeverExceedsCapacity() {
+        StripedLruCache<Integer, Integer> cache = new StripedLruCache<>(64, 8);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 64);
+    }
+
+    @Test
+    void remove_DropsEntry() {
+        StripedLruCache<String, Integer> cache = new StripedLruCache<>(16, 4);
+        cache.put("a", 1);
+
+        cache.remove("a");
+
+        assertNull(cache.get("a"));
+    }
+}
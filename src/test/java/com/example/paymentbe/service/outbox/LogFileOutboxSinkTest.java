@@ -0,0 +1,54 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.enums.OutboxEventType;
+import com.example.paymentbe.model.OutboxEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogFileOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void publish_AppendsOneJsonLinePerEvent() throws Exception {
+        Path file = directory.resolve("outbox/events.ndjson");
+        LogFileOutboxSink sink = new LogFileOutboxSink(file, objectMapper);
+        UUID paymentId = UUID.randomUUID();
+
+        sink.publish(List.of(event(1, paymentId)));
+        sink.publish(List.of(event(2, paymentId), event(3, paymentId)));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("PAYMENT_CREATED", first.get("type").asText());
+        assertEquals("payment", first.get("aggregateType").asText());
+        assertEquals(paymentId.toString(), first.get("aggregateId").asText());
+        assertEquals("PAID", first.get("payload").get("status").asText());
+        assertEquals(3, objectMapper.readTree(lines.get(2)).get("id").asLong());
+    }
+
+    private static OutboxEvent event(long id, UUID paymentId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventType(OutboxEventType.PAYMENT_CREATED)
+                .aggregateId(paymentId)
+                .payload("{\"status\":\"PAID\"}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.enums.OutboxEventType;
+import com.example.paymentbe.model.OutboxEvent;
+import com.example.paymentbe.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxSink sink;
+
+    @Test
+    void relay_DrainsFullChunksUntilAShortOne() {
+        List<OutboxEvent> first = events(1, 2);
+        List<OutboxEvent> second = events(3);
+        when(outboxEventRepository.claimNextChunk(2, 300)).thenReturn(first, second);
+
+        relay(List.of(sink), 2).relay();
+
+        verify(sink).publish(first);
+        verify(sink).publish(second);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(outboxEventRepository, never()).releaseClaims(anyList());
+    }
+
+    @Test
+    void relay_PublishesTheClaimedChunkInIdOrder() {
+        when(outboxEventRepository.claimNextChunk(10, 300)).thenReturn(events(3, 1, 2));
+
+        relay(List.of(sink), 10).relay();
+
+        verify(sink).publish(argThat(chunk -> chunk.stream().map(OutboxEvent::getId).toList()
+                .equals(List.of(1L, 2L, 3L))));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void relay_SinkFails_ReleasesTheChunk() {
+        List<OutboxEvent> chunk = events(1, 2);
+        when(outboxEventRepository.claimNextChunk(2, 300)).thenReturn(chunk);
+        doThrow(new IllegalStateException("Webhook answered HTTP 503")).when(sink).publish(chunk);
+
+        relay(List.of(sink), 2).relay();
+
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+        verify(outboxEventRepository).releaseClaims(List.of(1L, 2L));
+        verify(outboxEventRepository, times(1)).claimNextChunk(2, 300);
+    }
+
+    @Test
+    void relay_EverySinkGetsTheChunkBeforeItIsDeleted() {
+        OutboxSink other = mock(OutboxSink.class);
+        List<OutboxEvent> chunk = events(1);
+        when(outboxEventRepository.claimNextChunk(10, 300)).thenReturn(chunk);
+
+        relay(List.of(sink, other), 10).relay();
+
+        var inOrder = inOrder(sink, other, outboxEventRepository);
+        inOrder.verify(outboxEventRepository).claimNextChunk(10, 300);
+        inOrder.verify(sink).publish(chunk);
+        inOrder.verify(other).publish(chunk);
+        inOrder.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void relay_NoSinks_LeavesTheOutboxAlone() {
+        relay(List.of(), 10).relay();
+
+        verify(outboxEventRepository, never()).claimNextChunk(anyInt(), anyLong());
+    }
+
+    private OutboxRelay relay(List<OutboxSink> sinks, int chunkSize) {
+        return new OutboxRelay(outboxEventRepository, sinks, chunkSize, Duration.ofMinutes(5));
+    }
+
+    private static List<OutboxEvent> events(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(id -> OutboxEvent.builder()
+                        .id(id)
+                        .eventType(OutboxEventType.PAYMENT_CREATED)
+                        .aggregateId(UUID.randomUUID())
+                        .payload("{}")
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .toList();
+    }
+}
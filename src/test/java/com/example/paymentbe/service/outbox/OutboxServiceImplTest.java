@@ -0,0 +1,63 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.dto.PaymentResponse;
+import com.example.paymentbe.enums.OutboxEventType;
+import com.example.paymentbe.enums.PaymentStatus;
+import com.example.paymentbe.model.OutboxEvent;
+import com.example.paymentbe.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceImplTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private OutboxServiceImpl outboxService;
+
+    @Test
+    void record_SavesSerializedPayload() throws Exception {
+        UUID paymentId = UUID.randomUUID();
+        PaymentResponse payment = PaymentResponse.builder()
+                .paymentId(paymentId.toString())
+                .status(PaymentStatus.PAID)
+                .build();
+
+        outboxService.record(OutboxEventType.PAYMENT_CREATED, paymentId, payment);
+
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        OutboxEvent event = captor.getValue();
+        assertEquals(OutboxEventType.PAYMENT_CREATED, event.getEventType());
+        assertEquals(paymentId, event.getAggregateId());
+        assertNotNull(event.getCreatedAt());
+        assertEquals("PAID", objectMapper.readTree(event.getPayload()).get("status").asText());
+    }
+
+    @Test
+    void record_RequiresTheCallersTransaction() throws NoSuchMethodException {
+        Transactional transactional = OutboxServiceImpl.class
+                .getMethod("record", OutboxEventType.class, UUID.class, Object.class)
+                .getAnnotation(Transactional.class);
+
+        assertEquals(Propagation.MANDATORY, transactional.propagation());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.paymentbe.service.outbox;
+
+import com.example.paymentbe.enums.OutboxEventType;
+import com.example.paymentbe.model.OutboxEvent;
+import com.example.paymentbe.service.webhook.WebhookDispatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookOutboxSinkTest {
+
+    @Mock
+    private WebhookDispatcher webhookDispatcher;
+
+    private WebhookOutboxSink sink;
+    private List<OutboxEvent> events;
+
+    @BeforeEach
+    void setUp() {
+        sink = new WebhookOutboxSink(webhookDispatcher);
+        events = List.of(OutboxEvent.builder()
+                .id(1L)
+                .eventType(OutboxEventType.REFUND_PROCESSED)
+                .aggregateId(UUID.randomUUID())
+                .payload("{\"status\":\"ACCEPTED\"}")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Test
+    void publish_HandsTheChunkToTheDispatcher() {
+        sink.publish(events);
+
+        verify(webhookDispatcher).accept(events);
+    }
+
+    @Test
+    void publish_DeliveriesNotStored_Throws() {
+        doThrow(new QueryTimeoutException("statement timeout")).when(webhookDispatcher).accept(events);
+
+        assertThrows(QueryTimeoutException.class, () -> sink.publish(events));
+    }
+}
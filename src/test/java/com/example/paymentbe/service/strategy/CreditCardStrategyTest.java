@@ -59,6 +59,14 @@ class CreditCardStrategyTest {
         assertFalse(strategy.process(request));
     }
 
+    @Test
+    void process_CardNumberFailingLuhn_ReturnsFalse() {
+        request.setCardNumber("4111111111111112");
+        request.setCardCvc("123");
+
+        assertFalse(strategy.process(request));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"12", "12345", "abc"})
     void process_InvalidCvc_ReturnsFalse(String cvc) {
@@ -0,0 +1,63 @@
+package com.example.paymentbe.service.strategy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GatewayExecutor gatewayExecutor;
+
+    @AfterEach
+    void tearDown() {
+        gatewayExecutor.destroy();
+    }
+
+    @Test
+    void supplyAsync_VirtualThreadsEnabled_RunsOnVirtualThread() {
+        gatewayExecutor = new GatewayExecutor(true, 4, meterRegistry);
+
+        Thread thread = gatewayExecutor.supplyAsync(Thread::currentThread).join();
+
+        assertTrue(thread.isVirtual());
+        assertTrue(thread.getName().startsWith("gateway-"));
+        assertTrue(gatewayExecutor.isVirtualThreads());
+    }
+
+    @Test
+    void supplyAsync_VirtualThreadsDisabled_RunsOnPlatformPool() {
+        gatewayExecutor = new GatewayExecutor(false, 4, meterRegistry);
+
+        Thread thread = gatewayExecutor.supplyAsync(Thread::currentThread).join();
+
+        assertFalse(thread.isVirtual());
+        assertTrue(thread.getName().startsWith("gateway-"));
+        assertFalse(gatewayExecutor.isVirtualThreads());
+    }
+
+    @Test
+    void supplyAsync_PropagatesGatewayErrors() {
+        gatewayExecutor = new GatewayExecutor(true, 4, meterRegistry);
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> gatewayExecutor.supplyAsync(() -> {
+                    throw new IllegalStateException("Gateway unavailable");
+                }).join());
+
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void supplyAsync_RecordsExecutorMetrics() {
+        gatewayExecutor = new GatewayExecutor(false, 4, meterRegistry);
+
+        gatewayExecutor.supplyAsync(() -> true).join();
+
+        assertNotNull(meterRegistry.find("executor").tag("name", "payment.gateway").timer());
+    }
+}
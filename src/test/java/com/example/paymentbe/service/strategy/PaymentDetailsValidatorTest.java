@@ -0,0 +1,63 @@
+package com.example.paymentbe.service.strategy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentDetailsValidatorTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"4111111111111111", "5555555555554444", "378282246310005", "4222222222222"})
+    void isValidCardNumber_LuhnValidNumbers_ReturnsTrue(String cardNumber) {
+        assertTrue(PaymentDetailsValidator.isValidCardNumber(cardNumber));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"4111111111111112", "1234567890123456", "4111 1111 1111 1111", "411111111111", "41111111111111111"})
+    void isValidCardNumber_InvalidNumbers_ReturnsFalse(String cardNumber) {
+        assertFalse(PaymentDetailsValidator.isValidCardNumber(cardNumber));
+    }
+
+    @Test
+    void isValidCardNumber_Null_ReturnsFalse() {
+        assertFalse(PaymentDetailsValidator.isValidCardNumber(null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"123", "1234"})
+    void isValidCvc_ThreeOrFourDigits_ReturnsTrue(String cvc) {
+        assertTrue(PaymentDetailsValidator.isValidCvc(cvc));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "12", "12345", "12a"})
+    void isValidCvc_Invalid_ReturnsFalse(String cvc) {
+        assertFalse(PaymentDetailsValidator.isValidCvc(cvc));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1234567890", "12345678901234567890"})
+    void isValidBankAccount_TenToTwentyDigits_ReturnsTrue(String bankAccount) {
+        assertTrue(PaymentDetailsValidator.isValidBankAccount(bankAccount));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"123456789", "123456789012345678901", "12345-67890"})
+    void isValidBankAccount_Invalid_ReturnsFalse(String bankAccount) {
+        assertFalse(PaymentDetailsValidator.isValidBankAccount(bankAccount));
+    }
+
+    @Test
+    void isDigits_RejectsNonAsciiDigits() {
+        // Arabic-Indic digits are digits to Character.isDigit but not to the old [0-9] pattern
+        assertFalse(PaymentDetailsValidator.isDigits("١٢٣", 3, 3));
+    }
+
+    @Test
+    void passesLuhn_ChecksumOnly() {
+        assertTrue(PaymentDetailsValidator.passesLuhn("79927398713"));
+        assertFalse(PaymentDetailsValidator.passesLuhn("79927398710"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.paymentbe.service.strategy;
 
+import com.example.paymentbe.config.GatewayProperties;
 import com.example.paymentbe.enums.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,6 +8,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,6 +22,9 @@ class PaymentStrategyFactoryTest {
     @Mock
     private CreditCardStrategy creditCardStrategy;
 
+    @Spy
+    private GatewayProperties gatewayProperties = new GatewayProperties();
+
     @InjectMocks
     private PaymentStrategyFactory strategyFactory;
 
@@ -65,4 +70,21 @@ class PaymentStrategyFactoryTest {
                 fail("Unexpected payment method: " + method);
         }
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @EnumSource(PaymentMethod.class)
+    void getAsyncStrategy_WrapsStrategyWithResilienceGuards(PaymentMethod method) {
+        PaymentStrategy strategy = strategyFactory.getAsyncStrategy(method);
+        assertTrue(strategy instanceof ResilientPaymentStrategy);
+        assertSame(strategy, strategyFactory.getAsyncStrategy(method));
+    }
+
+    @Test
+    void getAsyncStrategy_NullMethod_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> strategyFactory.getAsyncStrategy(null)
+        );
+        assertEquals("Invalid payment method", exception.getMessage());
+    }
+}
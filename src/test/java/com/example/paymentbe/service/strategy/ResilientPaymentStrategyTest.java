@@ -0,0 +1,94 @@
+package com.example.paymentbe.service.strategy;
+
+import com.example.paymentbe.dto.PaymentRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientPaymentStrategyTest {
+
+    @Mock
+    private PaymentStrategy delegate;
+
+    @Mock
+    private GatewayExecutor executor;
+
+    private final PaymentRequest request = new PaymentRequest();
+    private ResilientPaymentStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new ResilientPaymentStrategy("CREDIT_CARD", delegate, Duration.ofMillis(100), 2,
+                new CircuitBreaker(2, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void process_DelegatesSynchronously() {
+        when(delegate.process(request)).thenReturn(true);
+
+        assertTrue(strategy.process(request));
+    }
+
+    @Test
+    void processAsync_ReturnsGatewayAnswer() {
+        when(delegate.processAsync(request, executor)).thenReturn(CompletableFuture.completedFuture(false));
+
+        assertFalse(strategy.processAsync(request, executor).join());
+        assertEquals(CircuitBreaker.State.CLOSED, strategy.getCircuitState());
+        assertEquals(2, strategy.getAvailablePermits());
+    }
+
+    @Test
+    void processAsync_SlowGateway_TimesOutButKeepsPermitUntilCallEnds() {
+        CompletableFuture<Boolean> slowCall = new CompletableFuture<>();
+        when(delegate.processAsync(request, executor)).thenReturn(slowCall);
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> strategy.processAsync(request, executor).join());
+
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertEquals(1, strategy.getAvailablePermits());
+        slowCall.complete(true);
+        assertEquals(2, strategy.getAvailablePermits());
+    }
+
+    @Test
+    void processAsync_BulkheadFull_RejectsWithoutCallingGateway() {
+        when(delegate.processAsync(request, executor)).thenReturn(new CompletableFuture<>());
+        strategy.processAsync(request, executor);
+        strategy.processAsync(request, executor);
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> strategy.processAsync(request, executor).join());
+
+        assertInstanceOf(GatewayUnavailableException.class, exception.getCause());
+        verify(delegate, times(2)).processAsync(request, executor);
+    }
+
+    @Test
+    void processAsync_RepeatedFailures_OpenCircuit() {
+        when(delegate.processAsync(request, executor))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Gateway error")));
+        assertThrows(CompletionException.class, () -> strategy.processAsync(request, executor).join());
+        assertThrows(CompletionException.class, () -> strategy.processAsync(request, executor).join());
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> strategy.processAsync(request, executor).join());
+
+        assertInstanceOf(GatewayUnavailableException.class, exception.getCause());
+        assertEquals(CircuitBreaker.State.OPEN, strategy.getCircuitState());
+        assertEquals(2, strategy.getAvailablePermits());
+        verify(delegate, times(2)).processAsync(request, executor);
+    }
+}
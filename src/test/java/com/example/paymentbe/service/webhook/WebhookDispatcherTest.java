@@ -0,0 +1,385 @@
+package com.example.paymentbe.service.webhook;
+
+import com.example.paymentbe.config.WebhookProperties;
+import com.example.paymentbe.enums.OutboxEventType;
+import com.example.paymentbe.model.OutboxEvent;
+import com.example.paymentbe.model.WebhookDelivery;
+import com.example.paymentbe.repository.WebhookDeliveryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookDispatcherTest {
+
+    @Mock
+    private WebhookDeliveryRepository deliveryRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final List<JsonNode> bodies = new ArrayList<>();
+    private final List<String> attempts = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger slowRequests = new AtomicInteger();
+    private final CountDownLatch hang = new CountDownLatch(1);
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    // Stands in for outbox_events and webhook_deliveries
+    private final Map<Long, OutboxEvent> outbox = new ConcurrentHashMap<>();
+    private final List<WebhookDelivery> deliveries = new ArrayList<>();
+    private final AtomicLong nextDeliveryId = new AtomicLong();
+
+    private HttpServer server;
+    private WebhookProperties properties;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/hook", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                JsonNode body = objectMapper.readTree(
+                        new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                synchronized (bodies) {
+                    bodies.add(body);
+                    attempts.add(exchange.getRequestHeaders().getFirst("X-Webhook-Attempt"));
+                }
+                gate.await(5, TimeUnit.SECONDS);
+                Integer status = statuses.poll();
+                exchange.sendResponseHeaders(status != null ? status : 200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        // Accepts the request and never answers while the test runs
+        server.createContext("/slow", exchange -> {
+            slowRequests.incrementAndGet();
+            try {
+                exchange.getRequestBody().readAllBytes();
+                hang.await(30, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        properties = new WebhookProperties();
+        properties.setEnabled(true);
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(5));
+        properties.setRequestTimeout(Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        hang.countDown();
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void accept_SendsEventsInBatches() {
+        start(endpoint("merchant", "/hook", 2, 8));
+
+        dispatcher.accept(events(OutboxEventType.PAYMENT_CREATED, 3));
+
+        awaitUntil(() -> pending("merchant") == 0);
+        assertEquals(3, bodies.stream().mapToInt(JsonNode::size).sum());
+        assertTrue(bodies.stream().allMatch(body -> body.size() <= 2));
+        assertEquals("PAYMENT_CREATED", bodies.get(0).get(0).get("type").asText());
+        assertEquals(3, deliveries("merchant", "delivered"));
+    }
+
+    @Test
+    void accept_ServerError_IsRetriedWithBackoff() {
+        statuses.add(503);
+        start(endpoint("merchant", "/hook", 10, 8));
+
+        dispatcher.accept(events(OutboxEventType.PAYMENT_CREATED, 1));
+
+        awaitUntil(() -> pending("merchant") == 0);
+        assertEquals(List.of("1", "2"), attempts);
+        assertEquals(1, deliveries("merchant", "retried"));
+        assertEquals(1, deliveries("merchant", "delivered"));
+        verify(deliveryRepository, never()).deadLetter(anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    void accept_ClientError_IsDeadLetteredWithoutRetry() {
+        statuses.add(400);
+        start(endpoint("merchant", "/hook", 10, 8));
+
+        dispatcher.accept(events(OutboxEventType.PAYMENT_STATUS_CHANGED, 1));
+
+        awaitUntil(() -> deliveries("merchant", "dead_lettered") == 1);
+        assertEquals(1, bodies.size());
+        verify(deliveryRepository).deadLetter(anyCollection(), eq(1), eq("HTTP 400"));
+        assertEquals(0, pending("merchant"));
+    }
+
+    @Test
+    void accept_RetriesExhausted_IsDeadLettered() {
+        statuses.addAll(List.of(503, 503, 503));
+        start(endpoint("merchant", "/hook", 10, 8));
+
+        dispatcher.accept(events(OutboxEventType.PAYMENT_CREATED, 2));
+
+        awaitUntil(() -> deliveries("merchant", "dead_lettered") == 2);
+        assertEquals(3, bodies.size());
+        verify(deliveryRepository).deadLetter(argThat(ids -> ids.size() == 2), eq(3), eq("HTTP 503"));
+    }
+
+    @Test
+    void accept_UnsubscribedEventType_IsNotStored() {
+        WebhookProperties.Endpoint endpoint = endpoint("merchant", "/hook", 10, 8);
+        endpoint.setEvents(Set.of(OutboxEventType.PAYMENT_STATUS_CHANGED));
+        start(endpoint);
+
+        dispatcher.accept(events(OutboxEventType.PAYMENT_CREATED, 2));
+
+        assertEquals(0, pending("merchant"));
+        assertTrue(bodies.isEmpty());
+    }
+
+    @Test
+    void accept_SameChunkAgain_DoesNotSendItTwice() {
+        gate = new CountDownLatch(1);
+        start(endpoint("merchant", "/hook", 10, 1));
+        List<OutboxEvent> chunk = events(OutboxEventType.PAYMENT_CREATED, 2);
+
+        dispatcher.accept(chunk);
+        // The relay offers the chunk again, e.g. after failing to delete it
+        dispatcher.accept(chunk);
+        gate.countDown();
+
+        awaitUntil(() -> pending("merchant") == 0);
+        assertEquals(2, bodies.stream().mapToInt(JsonNode::size).sum());
+        assertEquals(2, deliveries("merchant", "delivered"));
+    }
+
+    @Test
+    void accept_LimitsRequestsInFlightPerEndpoint() {
+        start(endpoint("merchant", "/hook", 1, 2));
+
+        dispatcher.accept(events(OutboxEventType.PAYMENT_CREATED, 12));
+
+        awaitUntil(() -> pending("merchant") == 0);
+        assertEquals(12, bodies.size());
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+    }
+
+    @Test
+    void accept_HangingEndpoint_DoesNotHoldBackTheOthers() {
+        start(endpoint("slow", "/slow", 10, 1), endpoint("merchant", "/hook", 10, 8));
+
+        dispatcher.accept(events(OutboxEventType.PAYMENT_CREATED, 2));
+        dispatcher.accept(events(OutboxEventType.PAYMENT_CREATED, 2));
+
+        awaitUntil(() -> pending("merchant") == 0);
+        assertEquals(4, bodies.stream().mapToInt(JsonNode::size).sum());
+        assertEquals(4, deliveries("merchant", "delivered"));
+        // The slow endpoint keeps its own deliveries: one batch in flight, the rest waiting for it
+        awaitUntil(() -> slowRequests.get() == 1);
+        assertEquals(4, pending("slow"));
+        assertEquals(0, deliveries("slow", "delivered"));
+    }
+
+    @Test
+    void accept_NotStored_SendsNothing() {
+        start(endpoint("merchant", "/hook", 10, 8));
+        doThrow(new IllegalStateException("connection lost"))
+                .when(deliveryRepository).enqueue(anyString(), anyCollection(), anyCollection());
+
+        assertThrows(IllegalStateException.class,
+                () -> dispatcher.accept(events(OutboxEventType.PAYMENT_CREATED, 1)));
+
+        verify(deliveryRepository, never()).claimNextBatch(anyString(), anyInt(), anyLong());
+        assertTrue(bodies.isEmpty());
+    }
+
+    @Test
+    void backoffMillis_GrowsExponentiallyUpToTheCap() {
+        Duration initial = Duration.ofMillis(200);
+        Duration max = Duration.ofSeconds(10);
+
+        assertEquals(100, WebhookDispatcher.backoffMillis(1, initial, max, 0.0));
+        assertEquals(200, WebhookDispatcher.backoffMillis(1, initial, max, 1.0));
+        assertEquals(400, WebhookDispatcher.backoffMillis(3, initial, max, 0.0));
+        assertEquals(5_000, WebhookDispatcher.backoffMillis(20, initial, max, 0.0));
+        assertEquals(10_000, WebhookDispatcher.backoffMillis(64, initial, max, 1.0));
+    }
+
+    private void start(WebhookProperties.Endpoint... endpoints) {
+        properties.setEndpoints(List.of(endpoints));
+        storeDeliveriesInMemory();
+        dispatcher = new WebhookDispatcher(properties, deliveryRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), objectMapper, meterRegistry);
+    }
+
+    // Same semantics as the native queries: one row per endpoint and event, leased rows are skipped
+    private void storeDeliveriesInMemory() {
+        lenient().when(deliveryRepository.enqueue(anyString(), anyCollection(), anyCollection())).thenAnswer(invocation -> {
+            String endpoint = invocation.getArgument(0);
+            Collection<Long> eventIds = invocation.getArgument(1);
+            Collection<String> eventTypes = invocation.getArgument(2);
+            List<Long> inserted = new ArrayList<>();
+            synchronized (deliveries) {
+                for (Long eventId : eventIds) {
+                    OutboxEvent event = outbox.get(eventId);
+                    boolean held = deliveries.stream()
+                            .anyMatch(row -> row.getEndpoint().equals(endpoint) && row.getEventId().equals(eventId));
+                    if (!held && eventTypes.contains(event.getEventType().name())) {
+                        WebhookDelivery row = WebhookDelivery.builder()
+                                .id(nextDeliveryId.incrementAndGet())
+                                .endpoint(endpoint)
+                                .eventId(eventId)
+                                .eventType(event.getEventType())
+                                .aggregateId(event.getAggregateId())
+                                .payload(event.getPayload())
+                                .createdAt(event.getCreatedAt())
+                                .build();
+                        deliveries.add(row);
+                        inserted.add(row.getId());
+                    }
+                }
+            }
+            return inserted;
+        });
+        lenient().when(deliveryRepository.claimNextBatch(anyString(), anyInt(), anyLong())).thenAnswer(invocation -> {
+            String endpoint = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            long leaseSeconds = invocation.getArgument(2);
+            synchronized (deliveries) {
+                List<WebhookDelivery> batch = deliveries.stream()
+                        .filter(row -> row.getEndpoint().equals(endpoint) && row.getClaimedUntil() == null)
+                        .sorted(Comparator.comparing(WebhookDelivery::getEventId))
+                        .limit(limit)
+                        .toList();
+                batch.forEach(row -> row.setClaimedUntil(LocalDateTime.now().plusSeconds(leaseSeconds)));
+                return batch;
+            }
+        });
+        lenient().doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            synchronized (deliveries) {
+                deliveries.removeIf(row -> ids.contains(row.getId()));
+            }
+            return null;
+        }).when(deliveryRepository).deleteAllByIdInBatch(anyCollection());
+        lenient().when(deliveryRepository.deadLetter(anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            synchronized (deliveries) {
+                deliveries.removeIf(row -> ids.contains(row.getId()));
+            }
+            return List.copyOf(ids);
+        });
+    }
+
+    private WebhookProperties.Endpoint endpoint(String name, String path, int batchSize, int maxConcurrency) {
+        WebhookProperties.Endpoint endpoint = new WebhookProperties.Endpoint();
+        endpoint.setName(name);
+        endpoint.setUrl(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path));
+        endpoint.setBatchSize(batchSize);
+        endpoint.setMaxConcurrency(maxConcurrency);
+        return endpoint;
+    }
+
+    private long pending(String endpoint) {
+        synchronized (deliveries) {
+            return deliveries.stream().filter(row -> row.getEndpoint().equals(endpoint)).count();
+        }
+    }
+
+    private double deliveries(String endpoint, String outcome) {
+        return meterRegistry.get("webhook.deliveries")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .counter()
+                .count();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private List<OutboxEvent> events(OutboxEventType type, int count) {
+        List<OutboxEvent> events = IntStream.range(0, count)
+                .mapToObj(i -> OutboxEvent.builder()
+                        .id((long) NEXT_ID.incrementAndGet())
+                        .eventType(type)
+                        .aggregateId(UUID.randomUUID())
+                        .payload("{\"status\":\"PAID\"}")
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .toList();
+        events.forEach(event -> outbox.put(event.getId(), event));
+        return events;
+    }
+}